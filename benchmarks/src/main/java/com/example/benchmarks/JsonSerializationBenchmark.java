@@ -0,0 +1,48 @@
+package com.example.benchmarks;
+
+import com.example.userservice.dto.UserDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JSON cost of {@code UserDto} as written by the REST API. The user event payload is covered by
+ * {@link UserEventCodecBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JsonSerializationBenchmark {
+
+    private ObjectWriter userDtoWriter;
+    private UserDto userDto;
+
+    @Setup
+    public void setUp() {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .build();
+        userDtoWriter = objectMapper.writerFor(UserDto.class);
+
+        userDto = new UserDto();
+        userDto.setId(42L);
+        userDto.setName("John Doe");
+        userDto.setEmail("john@example.com");
+        userDto.setAge(30);
+        userDto.setCreatedAt(LocalDateTime.now());
+        userDto.setVersion(3L);
+    }
+
+    @Benchmark
+    public byte[] userDto_write() throws Exception {
+        return userDtoWriter.writeValueAsBytes(userDto);
+    }
+}
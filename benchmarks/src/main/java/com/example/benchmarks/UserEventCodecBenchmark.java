@@ -0,0 +1,86 @@
+package com.example.benchmarks;
+
+import com.example.events.UserEventDeserializer;
+import com.example.events.UserEventDto;
+import com.example.events.UserEventSerializer;
+import org.apache.kafka.common.header.Header;
+import org.apache.kafka.common.header.internals.RecordHeaders;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.support.serializer.JsonDeserializer;
+import org.springframework.kafka.support.serializer.JsonSerializer;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The user event through the previous Spring Kafka JSON path (type headers, reflective binding) and through the
+ * shared binary codec. Record sizes, value plus headers, are printed once per fork.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserEventCodecBenchmark {
+
+    private static final String TOPIC = "user-events";
+
+    private final JsonSerializer<UserEventDto> jsonSerializer = new JsonSerializer<>();
+    private final JsonDeserializer<UserEventDto> jsonDeserializer = new JsonDeserializer<>();
+    private final UserEventSerializer binarySerializer = new UserEventSerializer();
+    private final UserEventDeserializer binaryDeserializer = new UserEventDeserializer();
+
+    private UserEventDto event;
+    private RecordHeaders jsonHeaders;
+    private byte[] jsonBytes;
+    private byte[] binaryBytes;
+
+    @Setup
+    public void setUp() {
+        jsonDeserializer.configure(Map.of(JsonDeserializer.TRUSTED_PACKAGES, "com.example.events"), false);
+
+        event = new UserEventDto();
+        event.setOperation("CREATE");
+        event.setUserId(1234567L);
+        event.setEmail("ivan.petrov@example.com");
+        event.setName("Иван Петров");
+
+        jsonHeaders = new RecordHeaders();
+        jsonBytes = jsonSerializer.serialize(TOPIC, jsonHeaders, event);
+        binaryBytes = binarySerializer.serialize(TOPIC, new RecordHeaders(), event);
+
+        int headerBytes = 0;
+        for (Header header : jsonHeaders) {
+            headerBytes += header.key().length() + header.value().length;
+        }
+        System.out.printf("%nJSON record: %d value bytes + %d header bytes; binary record: %d value bytes%n",
+                jsonBytes.length, headerBytes, binaryBytes.length);
+    }
+
+    @Benchmark
+    public byte[] json_serialize() {
+        return jsonSerializer.serialize(TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public UserEventDto json_deserialize() {
+        // The deserializer strips the type headers it reads, so every record gets its own copy as in a real poll
+        return jsonDeserializer.deserialize(TOPIC, new RecordHeaders(jsonHeaders.toArray()), jsonBytes);
+    }
+
+    @Benchmark
+    public byte[] binary_serialize() {
+        return binarySerializer.serialize(TOPIC, new RecordHeaders(), event);
+    }
+
+    @Benchmark
+    public UserEventDto binary_deserialize() {
+        return binaryDeserializer.deserialize(TOPIC, new RecordHeaders(), binaryBytes);
+    }
+
+    @Benchmark
+    public UserEventDto binaryDeserializer_legacyJson() {
+        return binaryDeserializer.deserialize(TOPIC, new RecordHeaders(), jsonBytes);
+    }
+}
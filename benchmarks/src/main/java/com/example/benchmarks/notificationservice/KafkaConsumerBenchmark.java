@@ -0,0 +1,124 @@
+package com.example.benchmarks.notificationservice;
+
+import com.example.events.UserEventDto;
+import com.example.notificationservice.config.KafkaConsumer;
+import com.example.notificationservice.service.EmailService;
+import com.example.notificationservice.service.NotificationCoalescer;
+import com.example.notificationservice.service.NotificationDispatcher;
+import com.example.notificationservice.service.NotificationLog;
+import com.example.notificationservice.service.ProcessedEventStore;
+import com.example.notificationservice.service.RecipientRateLimiter;
+import com.example.notificationservice.service.SmtpCircuitBreaker;
+import com.example.notificationservice.template.NotificationTemplates;
+import jakarta.mail.Session;
+import jakarta.mail.internet.MimeMessage;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.mail.javamail.JavaMailSender;
+import org.springframework.mail.javamail.MimeMessagePreparator;
+import org.springframework.util.unit.DataSize;
+
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Properties;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * One poll's worth of user events through {@link KafkaConsumer#handleUserEvents}: template rendering, message
+ * creation and dispatch over the session pool. SMTP is replaced by a stub that parks for {@code smtpMicros} per
+ * session, so the default measures the service's own overhead per event.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(KafkaConsumerBenchmark.BATCH_SIZE)
+public class KafkaConsumerBenchmark {
+
+    static final int BATCH_SIZE = 500;
+
+    @Param("0")
+    public long smtpMicros;
+
+    private NotificationDispatcher dispatcher;
+    private KafkaConsumer consumer;
+    private List<UserEventDto> batch;
+
+    @Setup
+    public void setUp() {
+        EmailService emailService = new EmailService(new StubMailSender(smtpMicros),
+                new SmtpCircuitBreaker(5, Duration.ofSeconds(30), null));
+        dispatcher = new NotificationDispatcher(emailService, new RecipientRateLimiter(0, Duration.ofHours(1)),
+                new NotificationLog("", DataSize.ofMegabytes(1)), 8, 1000, 20);
+        // Events carry no ids here, so every invocation sends the whole batch instead of dropping duplicates
+        consumer = new KafkaConsumer(emailService, dispatcher, new NotificationTemplates(List.of("ru", "en"), "ru"),
+                new ProcessedEventStore(100_000, Duration.ofHours(24), Duration.ofSeconds(30), ""),
+                new NotificationCoalescer(true));
+
+        String[] operations = {"CREATE", "UPDATE", "DELETE"};
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            UserEventDto event = new UserEventDto();
+            event.setOperation(operations[i % operations.length]);
+            event.setUserId((long) i);
+            event.setName("User " + i);
+            event.setEmail("user" + i + "@example.com");
+            event.setLocale(i % 2 == 0 ? "ru" : "en");
+            batch.add(event);
+        }
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Benchmark
+    public void handleUserEvents() {
+        consumer.handleUserEvents(batch);
+    }
+
+    static final class StubMailSender implements JavaMailSender {
+
+        private final long sessionNanos;
+        final AtomicLong sent = new AtomicLong();
+
+        StubMailSender(long sessionMicros) {
+            this.sessionNanos = TimeUnit.MICROSECONDS.toNanos(sessionMicros);
+        }
+
+        @Override
+        public void send(SimpleMailMessage... simpleMessages) {
+            sent.addAndGet(simpleMessages.length);
+            if (sessionNanos > 0) {
+                LockSupport.parkNanos(sessionNanos);
+            }
+        }
+
+        @Override
+        public MimeMessage createMimeMessage() {
+            return new MimeMessage(Session.getInstance(new Properties()));
+        }
+
+        @Override
+        public MimeMessage createMimeMessage(InputStream contentStream) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void send(MimeMessage... mimeMessages) {
+            send(new SimpleMailMessage[0]);
+        }
+
+        @Override
+        public void send(MimeMessagePreparator... mimeMessagePreparators) {
+            send(new SimpleMailMessage[0]);
+        }
+    }
+}
@@ -0,0 +1,158 @@
+package com.example.benchmarks.notificationservice;
+
+import com.example.events.UserEventDeserializer;
+import com.example.events.UserEventDto;
+import com.example.events.UserEventSerializer;
+import com.example.notificationservice.config.KafkaConsumer;
+import com.example.notificationservice.service.EmailService;
+import com.example.notificationservice.service.NotificationCoalescer;
+import com.example.notificationservice.service.NotificationDispatcher;
+import com.example.notificationservice.service.NotificationLog;
+import com.example.notificationservice.service.ProcessedEventStore;
+import com.example.notificationservice.service.RecipientRateLimiter;
+import com.example.notificationservice.service.SmtpCircuitBreaker;
+import com.example.notificationservice.template.NotificationTemplates;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.BatchMessageListener;
+import org.springframework.kafka.listener.ConcurrentMessageListenerContainer;
+import org.springframework.kafka.listener.ContainerProperties;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end consumer throughput of notification-service against an embedded broker, at listener concurrency
+ * 1, 2, 4, ... up to the partition count. Events are produced once, keyed by user id; every round reads all of
+ * them with a fresh consumer group through {@link KafkaConsumer}, the dispatcher and a stub mail sender that
+ * parks {@code smtpMicros} per SMTP session. Run with
+ * <pre>
+ * mvn -pl benchmarks -am install -DskipTests
+ * mvn -pl benchmarks exec:java \
+ *     -Dexec.mainClass=com.example.benchmarks.notificationservice.NotificationLoadTest \
+ *     -Dexec.args="100000 8 0 false"
+ * </pre>
+ * Arguments: events, partitions, smtpMicros, coalesce. With {@code smtpMicros=0} the work is CPU-bound, so the
+ * speedup follows the number of cores up to the partition count. Every user gets CREATE, UPDATE and DELETE back
+ * to back, so with {@code coalesce=true} the {@code mails} column shows how many of them reach SMTP when the
+ * three land in one batch.
+ */
+public class NotificationLoadTest {
+
+    private static final String TOPIC = "user-events";
+
+    public static void main(String[] args) throws Exception {
+        int events = args.length > 0 ? Integer.parseInt(args[0]) : 100_000;
+        int partitions = args.length > 1 ? Integer.parseInt(args[1]) : 8;
+        long smtpMicros = args.length > 2 ? Long.parseLong(args[2]) : 0;
+        boolean coalesce = args.length > 3 && Boolean.parseBoolean(args[3]);
+
+        EmbeddedKafkaKraftBroker broker = new EmbeddedKafkaKraftBroker(1, partitions, TOPIC);
+        broker.afterPropertiesSet();
+        try {
+            produce(broker.getBrokersAsString(), events);
+            System.out.printf("events=%d partitions=%d smtpMicros=%d coalesce=%b cores=%d%n",
+                    events, partitions, smtpMicros, coalesce, Runtime.getRuntime().availableProcessors());
+            System.out.printf("%-12s %12s %10s %10s%n", "concurrency", "events/s", "speedup", "mails");
+            double baseline = 0;
+            for (int concurrency = 1; concurrency <= partitions; concurrency *= 2) {
+                KafkaConsumerBenchmark.StubMailSender mailSender = new KafkaConsumerBenchmark.StubMailSender(smtpMicros);
+                double rate = consume(broker.getBrokersAsString(), events, concurrency, mailSender, coalesce);
+                if (baseline == 0) {
+                    baseline = rate;
+                }
+                System.out.printf("%-12d %12.0f %10.2f %10d%n", concurrency, rate, rate / baseline,
+                        mailSender.sent.get());
+            }
+        } finally {
+            broker.destroy();
+        }
+    }
+
+    private static void produce(String brokers, int events) {
+        DefaultKafkaProducerFactory<String, UserEventDto> producerFactory = new DefaultKafkaProducerFactory<>(Map.of(
+                ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, brokers,
+                ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class,
+                ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, UserEventSerializer.class,
+                ProducerConfig.LINGER_MS_CONFIG, 5,
+                ProducerConfig.BATCH_SIZE_CONFIG, 65536));
+        KafkaTemplate<String, UserEventDto> template = new KafkaTemplate<>(producerFactory);
+        String[] operations = {"CREATE", "UPDATE", "DELETE"};
+        for (int i = 0; i < events; i++) {
+            long userId = i / operations.length;
+            UserEventDto event = new UserEventDto();
+            event.setEventId(UUID.randomUUID());
+            event.setTimestamp(System.currentTimeMillis());
+            event.setOperation(operations[i % operations.length]);
+            event.setUserId(userId);
+            event.setName("User " + userId);
+            event.setEmail("user" + userId + "@example.com");
+            event.setLocale(userId % 2 == 0 ? "ru" : "en");
+            template.send(TOPIC, Long.toString(userId), event);
+        }
+        template.flush();
+        producerFactory.destroy();
+    }
+
+    private static double consume(String brokers, int events, int concurrency,
+                                  KafkaConsumerBenchmark.StubMailSender mailSender, boolean coalesce)
+            throws InterruptedException {
+        EmailService emailService = new EmailService(mailSender,
+                new SmtpCircuitBreaker(5, Duration.ofSeconds(30), null));
+        NotificationDispatcher dispatcher = new NotificationDispatcher(emailService, new RecipientRateLimiter(0, Duration.ofHours(1)),
+                new NotificationLog("", DataSize.ofMegabytes(1)), 8, 1000, 20);
+        KafkaConsumer consumer = new KafkaConsumer(emailService, dispatcher,
+                new NotificationTemplates(List.of("ru", "en"), "ru"),
+                new ProcessedEventStore(events, Duration.ofHours(24), Duration.ofHours(24), ""),
+                new NotificationCoalescer(coalesce));
+
+        CountDownLatch remaining = new CountDownLatch(events);
+        ContainerProperties containerProperties = new ContainerProperties(TOPIC);
+        containerProperties.setGroupId("load-test-" + concurrency + "-" + UUID.randomUUID());
+        containerProperties.setAckMode(ContainerProperties.AckMode.BATCH);
+
+        // Timed from the first delivered batch, so group join and partition assignment are not counted
+        long[] start = new long[1];
+        containerProperties.setMessageListener((BatchMessageListener<String, UserEventDto>) records -> {
+            synchronized (start) {
+                if (start[0] == 0) {
+                    start[0] = System.nanoTime();
+                }
+            }
+            consumer.handleUserEvents(records.stream().map(ConsumerRecord::value).toList());
+            records.forEach(record -> remaining.countDown());
+        });
+
+        DefaultKafkaConsumerFactory<String, UserEventDto> consumerFactory = new DefaultKafkaConsumerFactory<>(Map.of(
+                ConsumerConfig.BOOTSTRAP_SERVERS_CONFIG, brokers,
+                ConsumerConfig.KEY_DESERIALIZER_CLASS_CONFIG, StringDeserializer.class,
+                ConsumerConfig.VALUE_DESERIALIZER_CLASS_CONFIG, UserEventDeserializer.class,
+                ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest",
+                ConsumerConfig.MAX_POLL_RECORDS_CONFIG, 500));
+        ConcurrentMessageListenerContainer<String, UserEventDto> container =
+                new ConcurrentMessageListenerContainer<>(consumerFactory, containerProperties);
+        container.setConcurrency(concurrency);
+        container.start();
+        try {
+            if (!remaining.await(10, TimeUnit.MINUTES)) {
+                throw new IllegalStateException("Timed out with " + remaining.getCount() + " events left");
+            }
+            return events / ((System.nanoTime() - start[0]) / 1e9);
+        } finally {
+            container.stop();
+            dispatcher.shutdown();
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package com.example.benchmarks.notificationservice;
+
+import com.example.events.UserEventDto;
+import com.example.notificationservice.template.NotificationTemplate;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Run with {@code -prof gc} to compare the allocation rate per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemplateRenderBenchmark {
+
+    private static final String SOURCE = "Здравствуйте, {name}! Ваш аккаунт {email} на сайте ваш сайт был успешно создан.";
+    private static final String FORMAT = "Здравствуйте, %s! Ваш аккаунт %s на сайте ваш сайт был успешно создан.";
+
+    private final NotificationTemplate compiled = NotificationTemplate.compile(SOURCE);
+    private final StringBuilder buffer = new StringBuilder(256);
+    private UserEventDto event;
+
+    @Setup
+    public void setUp() {
+        event = new UserEventDto();
+        event.setOperation("CREATE");
+        event.setName("Иван Петров");
+        event.setEmail("ivan.petrov@example.com");
+    }
+
+    @Benchmark
+    public String compiledTemplate() {
+        return compiled.render(event);
+    }
+
+    @Benchmark
+    public StringBuilder compiledTemplateIntoBuffer() {
+        buffer.setLength(0);
+        compiled.renderTo(event, buffer);
+        return buffer;
+    }
+
+    @Benchmark
+    public String stringFormat() {
+        return String.format(FORMAT, event.getName(), event.getEmail());
+    }
+
+    @Benchmark
+    public String stringReplace() {
+        return SOURCE.replace("{name}", event.getName()).replace("{email}", event.getEmail());
+    }
+}
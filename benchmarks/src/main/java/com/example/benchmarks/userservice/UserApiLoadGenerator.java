@@ -0,0 +1,102 @@
+package com.example.benchmarks.userservice;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load generator for the UserController endpoints, used to compare the default settings with the
+ * {@code virtual-threads}, {@code prod} and {@code reactive} profiles. Start user-service once per profile and
+ * run, e.g.
+ * <pre>
+ * mvn -pl benchmarks -am install -DskipTests
+ * mvn -pl benchmarks exec:java \
+ *     -Dexec.mainClass=com.example.benchmarks.userservice.UserApiLoadGenerator \
+ *     -Dexec.args="http://localhost:8080 400 60"
+ * </pre>
+ * Arguments: base URL, concurrent clients, duration in seconds. Each client repeatedly creates a user, reads it,
+ * reads a page of users and deletes the user.
+ */
+public class UserApiLoadGenerator {
+
+    private static final String[] OPERATIONS = {"create", "get", "page", "delete"};
+
+    public static void main(String[] args) throws Exception {
+        String baseUrl = args.length > 0 ? args[0] : "http://localhost:8080";
+        int clients = args.length > 1 ? Integer.parseInt(args[1]) : 200;
+        int seconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+
+        HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+        long[][] latencies = new long[OPERATIONS.length][];
+        AtomicInteger[] counts = new AtomicInteger[OPERATIONS.length];
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            latencies[i] = new long[Math.min(clients * seconds * 200, 1_000_000)];
+            counts[i] = new AtomicInteger();
+        }
+        AtomicLong errors = new AtomicLong();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int c = 0; c < clients; c++) {
+                executor.submit(() -> {
+                    while (System.nanoTime() < deadline) {
+                        try {
+                            String email = "load-" + ThreadLocalRandom.current().nextLong(Long.MAX_VALUE) + "@example.com";
+                            String created = timed(http, latencies[0], counts[0], HttpRequest.newBuilder(URI.create(baseUrl + "/users"))
+                                    .header("Content-Type", "application/json")
+                                    .POST(HttpRequest.BodyPublishers.ofString(
+                                            "{\"name\":\"Load Test\",\"email\":\"" + email + "\",\"age\":30}")));
+                            String id = created.replaceAll("(?s).*?\"id\":(\\d+).*", "$1");
+                            timed(http, latencies[1], counts[1], HttpRequest.newBuilder(URI.create(baseUrl + "/users/" + id)).GET());
+                            timed(http, latencies[2], counts[2], HttpRequest.newBuilder(URI.create(baseUrl + "/users?size=20")).GET());
+                            timed(http, latencies[3], counts[3], HttpRequest.newBuilder(URI.create(baseUrl + "/users/" + id)).DELETE());
+                        } catch (Exception e) {
+                            errors.incrementAndGet();
+                        }
+                    }
+                    return null;
+                });
+            }
+        }
+
+        System.out.printf("clients=%d duration=%ds errors=%d%n", clients, seconds, errors.get());
+        System.out.printf("%-8s %10s %10s %10s %10s %10s%n", "op", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms");
+        for (int i = 0; i < OPERATIONS.length; i++) {
+            int n = Math.min(counts[i].get(), latencies[i].length);
+            long[] sorted = Arrays.copyOf(latencies[i], n);
+            Arrays.sort(sorted);
+            System.out.printf("%-8s %10.1f %10.2f %10.2f %10.2f %10.2f%n", OPERATIONS[i], (double) counts[i].get() / seconds,
+                    percentile(sorted, 0.50), percentile(sorted, 0.90), percentile(sorted, 0.99), percentile(sorted, 1.0));
+        }
+    }
+
+    private static String timed(HttpClient http, long[] latencies, AtomicInteger count, HttpRequest.Builder request)
+            throws Exception {
+        long start = System.nanoTime();
+        HttpResponse<String> response = http.send(request.build(), HttpResponse.BodyHandlers.ofString());
+        long elapsed = System.nanoTime() - start;
+        int index = count.getAndIncrement();
+        if (index < latencies.length) {
+            latencies[index] = elapsed;
+        }
+        if (response.statusCode() >= 400) {
+            throw new IllegalStateException("HTTP " + response.statusCode());
+        }
+        return response.body();
+    }
+
+    private static double percentile(long[] sorted, double p) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        return sorted[(int) Math.min(sorted.length - 1, Math.ceil(p * sorted.length) - 1)] / 1_000_000.0;
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.benchmarks.userservice;
+
+import com.example.userservice.UserServiceApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Read throughput of GET /users over HTTP with the default MVC stack and with the {@code reactive} profile
+ * (WebFlux on Netty, R2DBC), 64 concurrent clients against one in-process user-service. Neither path is cached,
+ * so both hit PostgreSQL on every request. Run against a scratch database with
+ * <pre>
+ * mvn -Pbenchmark -pl benchmarks -am verify -DskipTests -Dbenchmark.include=UserApiStackBenchmark \
+ *     -Dbenchmark.args="-jvmArgs -Dbenchmark.db.url=jdbc:postgresql://localhost:5432/user_service_bench \
+ *     -jvmArgs -Dbenchmark.r2dbc.url=r2dbc:postgresql://localhost:5432/user_service_bench"
+ * </pre>
+ * Writes of both stacks are compared with {@link UserApiLoadGenerator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Threads(64)
+@Fork(1)
+public class UserApiStackBenchmark {
+
+    private static final int SEED_USERS = 10_000;
+
+    @Param({"mvc", "reactive"})
+    public String stack;
+
+    private ConfigurableApplicationContext context;
+    private HttpClient http;
+    private String baseUrl;
+    private long minId;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(UserServiceApplication.class)
+                .profiles("reactive".equals(stack) ? "reactive" : "default")
+                .run(
+                        "--spring.datasource.url=" + System.getProperty("benchmark.db.url", "jdbc:postgresql://localhost:5432/user_service"),
+                        "--spring.datasource.username=" + System.getProperty("benchmark.db.username", "user_service_user"),
+                        "--spring.datasource.password=" + System.getProperty("benchmark.db.password", "password"),
+                        "--spring.r2dbc.url=" + System.getProperty("benchmark.r2dbc.url", "r2dbc:postgresql://localhost:5432/user_service"),
+                        "--spring.jpa.show-sql=false",
+                        "--spring.kafka.admin.auto-create=false",
+                        "--server.port=0",
+                        "--user.outbox.relay-interval-ms=3600000");
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        long existing = jdbcTemplate.queryForObject("SELECT count(*) FROM users", Long.class);
+        if (existing < SEED_USERS) {
+            jdbcTemplate.update("""
+                    INSERT INTO users (name, email, age, created_at, version)
+                    SELECT 'User ' || g, 'stack' || g || '-' || md5(random()::text) || '@example.com', 18 + g % 60, now(), 0
+                    FROM generate_series(1, ?) g
+                    """, SEED_USERS - existing);
+        }
+        minId = jdbcTemplate.queryForObject("SELECT min(id) FROM users", Long.class);
+
+        int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+        baseUrl = "http://localhost:" + port;
+        http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public String getPage() throws Exception {
+        long after = minId + ThreadLocalRandom.current().nextLong(SEED_USERS - 20);
+        return get("/users?size=20&after=" + after);
+    }
+
+    private String get(String path) throws Exception {
+        HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create(baseUrl + path)).GET().build(),
+                HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("GET " + path + " returned " + response.statusCode());
+        }
+        return response.body();
+    }
+}
@@ -0,0 +1,133 @@
+package com.example.benchmarks.userservice;
+
+import com.example.userservice.UserServiceApplication;
+import com.example.userservice.dto.UserCreateDto;
+import com.example.userservice.exception.EmailAlreadyExistsException;
+import com.example.userservice.mapper.UserMapper;
+import com.example.userservice.repository.UserRepository;
+import com.example.userservice.service.UserEmailFilter;
+import com.example.userservice.service.UserService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of rejecting a signup with a taken email. {@code insert} is the path without {@link UserEmailFilter}: the
+ * INSERT runs into the unique constraint and the transaction rolls back. {@code filter} is
+ * {@link UserService#create}: the filter hits and an indexed exists-query confirms it. The filter size per million
+ * emails, at the default 1% false-positive rate, is printed at setup. The long warmup is for a single core, where
+ * both paths take about 40 seconds to reach steady state.
+ * <p>
+ * Runs on in-memory H2 unless {@code -Dbenchmark.db.url} points at PostgreSQL, where the saved INSERT and rollback
+ * also cost a WAL write and more round trips:
+ * <pre>
+ * mvn -Pbenchmark -pl benchmarks -am verify -DskipTests -Dbenchmark.include=UserEmailFilterBenchmark
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 25, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserEmailFilterBenchmark {
+
+    // H2 stand-ins for the PostgreSQL advisory lock functions the outbox relay calls; non-zero means acquired
+    static final String H2_ADVISORY_LOCKS = "CREATE ALIAS IF NOT EXISTS PG_TRY_ADVISORY_LOCK FOR 'java.lang.Long.signum'\\;"
+            + "CREATE ALIAS IF NOT EXISTS PG_ADVISORY_UNLOCK FOR 'java.lang.Long.signum'";
+
+    @Param("100000")
+    public int rows;
+
+    @Param({"insert", "filter"})
+    public String path;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+    private UserRepository userRepository;
+    private UserMapper userMapper;
+    private TransactionTemplate transactionTemplate;
+    private String emailPrefix;
+
+    @Setup
+    public void setUp() throws InterruptedException {
+        String url = System.getProperty("benchmark.db.url");
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.jpa.show-sql=false",
+                "spring.kafka.admin.auto-create=false",
+                "user.outbox.relay-interval-ms=3600000",
+                // Hibernate logs a WARN and an ERROR line for every constraint violation, left out of the timing
+                "logging.level.org.hibernate.engine.jdbc.spi.SqlExceptionHelper=off"));
+        if (url == null) {
+            properties.addAll(List.of(
+                    "spring.datasource.url=jdbc:h2:mem:email-filter;DB_CLOSE_DELAY=-1;INIT=" + H2_ADVISORY_LOCKS,
+                    "spring.datasource.username=sa",
+                    "spring.datasource.password=",
+                    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                    "spring.sql.init.mode=never"));
+        } else {
+            properties.addAll(List.of(
+                    "spring.datasource.url=" + url,
+                    "spring.datasource.username=" + System.getProperty("benchmark.db.username", "user_service_user"),
+                    "spring.datasource.password=" + System.getProperty("benchmark.db.password", "password")));
+        }
+        context = new SpringApplicationBuilder(UserServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(properties.stream().map(property -> "--" + property).toArray(String[]::new));
+        userService = context.getBean(UserService.class);
+        userRepository = context.getBean(UserRepository.class);
+        userMapper = context.getBean(UserMapper.class);
+        transactionTemplate = context.getBean(TransactionTemplate.class);
+
+        emailPrefix = "signup-" + System.nanoTime() + "-";
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> users = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            users.add(new Object[]{"Signup User " + i, emailPrefix + i + "@example.com", 18 + i % 60, now});
+        }
+        context.getBean(JdbcTemplate.class)
+                .batchUpdate("INSERT INTO users (name, email, age, created_at, version) VALUES (?, ?, ?, ?, 0)", users);
+
+        UserEmailFilter filter = context.getBean(UserEmailFilter.class);
+        // The rebuild started at startup may still be running and would skip a second one
+        while (!filter.mightContain(emailPrefix + (rows - 1) + "@example.com")) {
+            filter.scheduleRebuild();
+            Thread.sleep(500);
+        }
+        System.out.printf("%nemail filter: %.0f bytes per million emails%n",
+                context.getBean(MeterRegistry.class).get("user.email-filter.bytes").gauge().value());
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public Object rejectTakenEmail() {
+        UserCreateDto dto = new UserCreateDto();
+        dto.setName("Signup Retry");
+        dto.setEmail(emailPrefix + ThreadLocalRandom.current().nextInt(rows) + "@example.com");
+        dto.setAge(30);
+        try {
+            if ("insert".equals(path)) {
+                return transactionTemplate.execute(status -> userRepository.save(userMapper.toEntity(dto)));
+            }
+            return userService.create(dto);
+        } catch (DataIntegrityViolationException | EmailAlreadyExistsException e) {
+            return e;
+        }
+    }
+}
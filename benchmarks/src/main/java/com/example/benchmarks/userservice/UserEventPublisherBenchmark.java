@@ -0,0 +1,93 @@
+package com.example.benchmarks.userservice;
+
+import com.example.events.UserEventDto;
+import com.example.events.UserEventSerializer;
+import com.example.userservice.service.UserEventPublisher;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.serialization.StringSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.kafka.test.EmbeddedKafkaKraftBroker;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Events/sec through {@link UserEventPublisher} into an embedded single-node broker: one outbox batch is
+ * published and every ack awaited, as the relay does. {@code untuned} is the previous producer setup (no linger,
+ * no compression, default batch size), {@code tuned} the one in user-service's application.properties.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(UserEventPublisherBenchmark.BATCH_SIZE)
+public class UserEventPublisherBenchmark {
+
+    static final int BATCH_SIZE = 500;
+
+    @Param({"untuned", "tuned"})
+    public String producer;
+
+    private EmbeddedKafkaKraftBroker broker;
+    private DefaultKafkaProducerFactory<String, UserEventDto> producerFactory;
+    private UserEventPublisher publisher;
+    private List<UserEventDto> batch;
+
+    @Setup
+    public void setUp() {
+        broker = new EmbeddedKafkaKraftBroker(1, 3, "user-events");
+        broker.afterPropertiesSet();
+
+        Map<String, Object> config = new HashMap<>();
+        config.put(ProducerConfig.BOOTSTRAP_SERVERS_CONFIG, broker.getBrokersAsString());
+        config.put(ProducerConfig.KEY_SERIALIZER_CLASS_CONFIG, StringSerializer.class);
+        config.put(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, UserEventSerializer.class);
+        config.put(ProducerConfig.ACKS_CONFIG, "all");
+        if ("tuned".equals(producer)) {
+            config.put(ProducerConfig.BATCH_SIZE_CONFIG, 65536);
+            config.put(ProducerConfig.COMPRESSION_TYPE_CONFIG, "lz4");
+            config.put(ProducerConfig.LINGER_MS_CONFIG, 5);
+            config.put(ProducerConfig.ENABLE_IDEMPOTENCE_CONFIG, true);
+        } else {
+            config.put(ProducerConfig.LINGER_MS_CONFIG, 0);
+        }
+        producerFactory = new DefaultKafkaProducerFactory<>(config);
+        publisher = new UserEventPublisher(new KafkaTemplate<>(producerFactory), new SimpleMeterRegistry());
+
+        String[] operations = {"CREATE", "UPDATE", "DELETE"};
+        batch = new ArrayList<>(BATCH_SIZE);
+        for (int i = 0; i < BATCH_SIZE; i++) {
+            UserEventDto event = new UserEventDto();
+            event.setOperation(operations[i % operations.length]);
+            event.setUserId((long) i);
+            event.setName("User " + i);
+            event.setEmail("user" + i + "@example.com");
+            batch.add(event);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        producerFactory.destroy();
+        broker.destroy();
+    }
+
+    @Benchmark
+    public void publishBatch() {
+        List<CompletableFuture<SendResult<String, UserEventDto>>> futures = new ArrayList<>(BATCH_SIZE);
+        for (UserEventDto event : batch) {
+            futures.add(publisher.publish(event));
+        }
+        CompletableFuture.allOf(futures.toArray(CompletableFuture[]::new)).join();
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.benchmarks.userservice;
+
+import com.example.userservice.controller.UserController;
+import com.example.userservice.controller.UserModelAssembler;
+import com.example.userservice.dto.UserDto;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.methodOn;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@OperationsPerInvocation(UserLinksBenchmark.PAGE_SIZE)
+public class UserLinksBenchmark {
+
+    static final int PAGE_SIZE = 50;
+
+    private final UserModelAssembler assembler = new UserModelAssembler();
+
+    private List<UserDto> page;
+
+    @Setup
+    public void setUp() {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/users");
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+
+        page = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            UserDto user = new UserDto();
+            user.setId(1000L + i);
+            user.setName("User " + i);
+            user.setEmail("user" + i + "@example.com");
+            user.setAge(30);
+            user.setCreatedAt(LocalDateTime.now());
+            page.add(user);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Benchmark
+    public List<EntityModel<UserDto>> methodOnLinks() {
+        return page.stream()
+                .map(user -> EntityModel.of(user,
+                        linkTo(methodOn(UserController.class).getUserById(user.getId(), null)).withSelfRel(),
+                        linkTo(methodOn(UserController.class).updateUser(user.getId(), null)).withRel("update"),
+                        linkTo(methodOn(UserController.class).deleteUser(user.getId())).withRel("delete")))
+                .toList();
+    }
+
+    @Benchmark
+    public List<EntityModel<UserDto>> assemblerLinks() {
+        String usersHref = assembler.usersHref();
+        return page.stream().map(user -> assembler.toItemModel(user, usersHref)).toList();
+    }
+
+    @Benchmark
+    public List<EntityModel<UserDto>> compact() {
+        return page.stream().map(assembler::toCompactModel).toList();
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.benchmarks.userservice;
+
+import com.example.userservice.dto.UserCreateDto;
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.mapper.UserMapper;
+import com.example.userservice.model.User;
+import org.modelmapper.ModelMapper;
+import org.openjdk.jmh.annotations.*;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UserMapperBenchmark {
+
+    private final ModelMapper modelMapper = new ModelMapper();
+    private final UserMapper userMapper = new UserMapper();
+
+    private User user;
+    private UserCreateDto createDto;
+
+    @Setup
+    public void setUp() {
+        user = new User();
+        user.setId(42L);
+        user.setName("John Doe");
+        user.setEmail("john@example.com");
+        user.setAge(30);
+        user.setCreatedAt(LocalDateTime.now());
+
+        createDto = new UserCreateDto();
+        createDto.setName("John Doe");
+        createDto.setEmail("john@example.com");
+        createDto.setAge(30);
+    }
+
+    @Benchmark
+    public UserDto toDto_modelMapper() {
+        return modelMapper.map(user, UserDto.class);
+    }
+
+    @Benchmark
+    public UserDto toDto_userMapper() {
+        return userMapper.toDto(user);
+    }
+
+    @Benchmark
+    public User toEntity_modelMapper() {
+        return modelMapper.map(createDto, User.class);
+    }
+
+    @Benchmark
+    public User toEntity_userMapper() {
+        return userMapper.toEntity(createDto);
+    }
+}
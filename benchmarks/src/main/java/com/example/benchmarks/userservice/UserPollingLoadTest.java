@@ -0,0 +1,200 @@
+package com.example.benchmarks.userservice;
+
+import com.example.userservice.UserServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Clients polling GET /users pages and GET /users/{id} while a writer patches a few users per second, run once
+ * per client behaviour: {@code plain} (no compression, no validators), {@code gzip} (Accept-Encoding: gzip) and
+ * {@code conditional} (gzip plus If-None-Match with the last ETag seen for each URL). Reports latency and the
+ * bytes sent per response. user-service runs in-process on H2 unless {@code -Dbenchmark.db.url} points at
+ * PostgreSQL:
+ * <pre>
+ * mvn -pl benchmarks -am install -DskipTests
+ * mvn -pl benchmarks exec:java \
+ *     -Dexec.mainClass=com.example.benchmarks.userservice.UserPollingLoadTest \
+ *     -Dexec.args="16 20 10"
+ * </pre>
+ * Arguments: concurrent clients, seconds per behaviour, user updates per second.
+ */
+public class UserPollingLoadTest {
+
+    private static final int USERS = 2_000;
+    private static final int PAGE_SIZE = 50;
+    private static final String[] MODES = {"plain", "gzip", "conditional"};
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+        int seconds = args.length > 1 ? Integer.parseInt(args[1]) : 20;
+        int updatesPerSecond = args.length > 2 ? Integer.parseInt(args[2]) : 10;
+
+        try (ConfigurableApplicationContext context = start()) {
+            long minId = seed(context.getBean(JdbcTemplate.class));
+            String baseUrl = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort();
+            HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(5)).build();
+
+            System.out.printf("clients=%d seconds=%d updates/s=%d users=%d pageSize=%d%n",
+                    clients, seconds, updatesPerSecond, USERS, PAGE_SIZE);
+            System.out.printf("%-12s %-6s %10s %10s %10s %12s %8s%n",
+                    "mode", "target", "req/s", "p50 ms", "p99 ms", "bytes/resp", "304 %");
+            for (String mode : MODES) {
+                run(http, baseUrl, minId, mode, clients, seconds, updatesPerSecond);
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext start() {
+        String url = System.getProperty("benchmark.db.url");
+        List<String> properties = new ArrayList<>(List.of(
+                "spring.jpa.show-sql=false",
+                "spring.kafka.admin.auto-create=false",
+                "user.outbox.relay-interval-ms=3600000",
+                "server.port=0"));
+        if (url == null) {
+            properties.addAll(List.of(
+                    "spring.datasource.url=jdbc:h2:mem:polling;DB_CLOSE_DELAY=-1;INIT=" + UserEmailFilterBenchmark.H2_ADVISORY_LOCKS,
+                    "spring.datasource.username=sa",
+                    "spring.datasource.password=",
+                    "spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                    "spring.sql.init.mode=never"));
+        } else {
+            properties.addAll(List.of(
+                    "spring.datasource.url=" + url,
+                    "spring.datasource.username=" + System.getProperty("benchmark.db.username", "user_service_user"),
+                    "spring.datasource.password=" + System.getProperty("benchmark.db.password", "password")));
+        }
+        return new SpringApplicationBuilder(UserServiceApplication.class)
+                .run(properties.stream().map(property -> "--" + property).toArray(String[]::new));
+    }
+
+    private static long seed(JdbcTemplate jdbcTemplate) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> rows = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            rows.add(new Object[]{"Polling User " + i, "polling" + i + "-" + System.nanoTime() + "@example.com", 18 + i % 60, now});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (name, email, age, created_at, version) VALUES (?, ?, ?, ?, 0)", rows);
+        return jdbcTemplate.queryForObject("SELECT max(id) FROM users", Long.class) - USERS + 1;
+    }
+
+    private static void run(HttpClient http, String baseUrl, long minId, String mode, int clients, int seconds,
+                            int updatesPerSecond) throws InterruptedException {
+        Stats pages = new Stats(clients * seconds * 2_000);
+        Stats items = new Stats(clients * seconds * 2_000);
+        long deadline = System.nanoTime() + Duration.ofSeconds(seconds).toNanos();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            executor.submit(() -> {
+                while (System.nanoTime() < deadline) {
+                    long id = minId + ThreadLocalRandom.current().nextInt(USERS);
+                    try {
+                        http.send(HttpRequest.newBuilder(URI.create(baseUrl + "/users/" + id))
+                                        .header("Content-Type", "application/json")
+                                        .method("PATCH", HttpRequest.BodyPublishers.ofString(
+                                                "{\"age\":" + (18 + ThreadLocalRandom.current().nextInt(60)) + "}"))
+                                        .build(),
+                                HttpResponse.BodyHandlers.discarding());
+                        Thread.sleep(1000 / Math.max(updatesPerSecond, 1));
+                    } catch (InterruptedException e) {
+                        return;
+                    } catch (Exception ignored) {
+                        // keep writing
+                    }
+                }
+            });
+            for (int c = 0; c < clients; c++) {
+                executor.submit(() -> {
+                    Map<String, String> etags = new HashMap<>();
+                    while (System.nanoTime() < deadline) {
+                        ThreadLocalRandom random = ThreadLocalRandom.current();
+                        boolean page = random.nextBoolean();
+                        String path = page
+                                ? "/users?size=" + PAGE_SIZE + "&after=" + (minId - 1 + PAGE_SIZE * random.nextInt(USERS / PAGE_SIZE))
+                                : "/users/" + (minId + random.nextInt(USERS));
+                        poll(http, baseUrl + path, mode, etags, page ? pages : items);
+                    }
+                });
+            }
+        }
+        pages.print(mode, "page", seconds);
+        items.print(mode, "item", seconds);
+    }
+
+    private static void poll(HttpClient http, String url, String mode, Map<String, String> etags, Stats stats) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(URI.create(url)).GET();
+        if (!mode.equals("plain")) {
+            request.header("Accept-Encoding", "gzip");
+        }
+        String etag = etags.get(url);
+        if (mode.equals("conditional") && etag != null) {
+            request.header("If-None-Match", etag);
+        }
+        try {
+            long start = System.nanoTime();
+            // The body is not decompressed, so its length is what went over the wire
+            HttpResponse<byte[]> response = http.send(request.build(), HttpResponse.BodyHandlers.ofByteArray());
+            long elapsed = System.nanoTime() - start;
+            response.headers().firstValue("ETag").ifPresent(value -> etags.put(url, value));
+            stats.record(elapsed, response.body().length, response.statusCode() == 304);
+        } catch (Exception e) {
+            stats.errors.incrementAndGet();
+        }
+    }
+
+    private static final class Stats {
+        final long[] latencies;
+        final AtomicLong count = new AtomicLong();
+        final AtomicLong bytes = new AtomicLong();
+        final AtomicLong notModified = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+
+        Stats(int capacity) {
+            latencies = new long[capacity];
+        }
+
+        void record(long nanos, int size, boolean unchanged) {
+            long i = count.getAndIncrement();
+            if (i < latencies.length) {
+                latencies[(int) i] = nanos;
+            }
+            bytes.addAndGet(size);
+            if (unchanged) {
+                notModified.incrementAndGet();
+            }
+        }
+
+        void print(String mode, String target, int seconds) {
+            int n = (int) Math.min(count.get(), latencies.length);
+            long[] sorted = Arrays.copyOf(latencies, n);
+            Arrays.sort(sorted);
+            System.out.printf("%-12s %-6s %10.0f %10.2f %10.2f %12.0f %8.1f%s%n",
+                    mode, target,
+                    count.get() / (double) seconds,
+                    n > 0 ? sorted[n / 2] / 1e6 : 0,
+                    n > 0 ? sorted[Math.min(n - 1, (int) (n * 0.99))] / 1e6 : 0,
+                    count.get() > 0 ? bytes.get() / (double) count.get() : 0,
+                    count.get() > 0 ? 100.0 * notModified.get() / count.get() : 0,
+                    errors.get() > 0 ? " errors=" + errors.get() : "");
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.example.benchmarks.userservice;
+
+import com.example.userservice.UserServiceApplication;
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.dto.UserSearchDto;
+import com.example.userservice.service.UserService;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs {@link UserService#search} against a PostgreSQL database seeded with {@code rows} generated users.
+ * Point it at a scratch database; missing rows are generated on first run and reused afterwards:
+ * <pre>
+ * mvn -Pbenchmark -pl benchmarks -am verify -DskipTests -Dbenchmark.include=UserSearchBenchmark \
+ *     -Dbenchmark.args="-jvmArgs -Dbenchmark.db.url=jdbc:postgresql://localhost:5432/user_service_bench"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UserSearchBenchmark {
+
+    private static final String SEED_USERS = """
+            INSERT INTO users (name, email, age, created_at, version)
+            SELECT initcap(substr(md5(g::text), 1, 8)) || ' ' || initcap(substr(md5((g * 7)::text), 1, 10)),
+                   'user' || g || '@example.com', 18 + g % 60, now(), 0
+            FROM generate_series(?, ?) g
+            """;
+
+    @Param("5000000")
+    public int rows;
+
+    @Param("50")
+    public int pageSize;
+
+    private ConfigurableApplicationContext context;
+    private UserService userService;
+
+    private UserSearchDto emailPrefix;
+    private UserSearchDto nameSubstring;
+    private UserSearchDto ageRange;
+    private UserSearchDto combined;
+    private long deepCursor;
+
+    @Setup
+    public void setUp() {
+        context = new SpringApplicationBuilder(UserServiceApplication.class)
+                .web(WebApplicationType.NONE)
+                .run(
+                        "--spring.datasource.url=" + System.getProperty("benchmark.db.url", "jdbc:postgresql://localhost:5432/user_service"),
+                        "--spring.datasource.username=" + System.getProperty("benchmark.db.username", "user_service_user"),
+                        "--spring.datasource.password=" + System.getProperty("benchmark.db.password", "password"),
+                        "--spring.jpa.show-sql=false",
+                        "--user.outbox.relay-interval-ms=3600000");
+        userService = context.getBean(UserService.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Long maxId = jdbcTemplate.queryForObject("SELECT coalesce(max(id), 0) FROM users", Long.class);
+        long existing = jdbcTemplate.queryForObject("SELECT count(*) FROM users", Long.class);
+        if (existing < rows) {
+            jdbcTemplate.update(SEED_USERS, maxId + 1, maxId + rows - existing);
+            jdbcTemplate.execute("ANALYZE users");
+        }
+
+        emailPrefix = new UserSearchDto();
+        emailPrefix.setEmail("user12345");
+        nameSubstring = new UserSearchDto();
+        nameSubstring.setName("abc1");
+        ageRange = new UserSearchDto();
+        ageRange.setMinAge(30);
+        ageRange.setMaxAge(32);
+        combined = new UserSearchDto();
+        combined.setName("a1");
+        combined.setMinAge(40);
+        combined.setMaxAge(50);
+        deepCursor = jdbcTemplate.queryForObject("SELECT max(id) FROM users", Long.class) / 2;
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<UserDto> emailPrefix() {
+        return userService.search(emailPrefix, null, pageSize);
+    }
+
+    @Benchmark
+    public List<UserDto> nameSubstring() {
+        return userService.search(nameSubstring, null, pageSize);
+    }
+
+    @Benchmark
+    public List<UserDto> ageRange() {
+        return userService.search(ageRange, null, pageSize);
+    }
+
+    @Benchmark
+    public List<UserDto> ageRange_deepPage() {
+        return userService.search(ageRange, deepCursor, pageSize);
+    }
+
+    @Benchmark
+    public List<UserDto> combined() {
+        return userService.search(combined, null, pageSize);
+    }
+}
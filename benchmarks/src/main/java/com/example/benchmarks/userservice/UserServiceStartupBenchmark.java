@@ -0,0 +1,54 @@
+package com.example.benchmarks.userservice;
+
+import com.example.userservice.UserServiceApplication;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Time to a started user-service, Tomcat and connection pool included, with the default settings and with the
+ * {@code prod} profile (Flyway validation, fixed-size pool, PgJDBC statement caching). Each invocation starts a
+ * fresh context against PostgreSQL; Kafka is not contacted during startup. Run with
+ * <pre>
+ * mvn -Pbenchmark -pl benchmarks -am verify -DskipTests -Dbenchmark.include=UserServiceStartupBenchmark \
+ *     -Dbenchmark.args="-jvmArgs -Dbenchmark.db.url=jdbc:postgresql://localhost:5432/user_service_bench"
+ * </pre>
+ * CRUD throughput of the two setups is compared with {@link UserApiLoadGenerator}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(2)
+public class UserServiceStartupBenchmark {
+
+    @Param({"default", "prod"})
+    public String profile;
+
+    private ConfigurableApplicationContext context;
+
+    @Benchmark
+    public ConfigurableApplicationContext start() {
+        context = new SpringApplicationBuilder(UserServiceApplication.class)
+                .profiles(profile)
+                .run(
+                        "--spring.datasource.url=" + System.getProperty("benchmark.db.url", "jdbc:postgresql://localhost:5432/user_service"),
+                        "--spring.datasource.username=" + System.getProperty("benchmark.db.username", "user_service_user"),
+                        "--spring.datasource.password=" + System.getProperty("benchmark.db.password", "password"),
+                        "--spring.jpa.show-sql=false",
+                        "--spring.kafka.admin.auto-create=false",
+                        "--server.port=0",
+                        "--user.outbox.relay-interval-ms=3600000");
+        return context;
+    }
+
+    @TearDown(Level.Invocation)
+    public void stop() {
+        if (context != null) {
+            context.close();
+        }
+    }
+}
@@ -1,28 +1,173 @@
 package com.example.notificationservice.config;
 
-import com.example.notificationservice.dto.UserEventDto;
+import com.example.events.UserEventDto;
+import com.example.notificationservice.exception.DispatchException;
 import com.example.notificationservice.service.EmailService;
+import com.example.notificationservice.service.NotificationCoalescer;
+import com.example.notificationservice.service.NotificationDispatcher;
+import com.example.notificationservice.service.ProcessedEventStore;
+import com.example.notificationservice.template.NotificationTemplates;
+import com.example.notificationservice.template.RenderedNotification;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Component;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+@Slf4j
 @Component
 @RequiredArgsConstructor
-public class KafkaConsumer {
+public class KafkaConsumer implements MeterBinder {
+
+    // Records the batch listener failed on are handed here by KafkaErrorHandlingConfig
+    public static final String RETRY_TOPIC = "user-events-notification";
+    // Where the retries end, and where records that cannot be deserialized are parked straight away
+    public static final String DEAD_LETTER_TOPIC = RETRY_TOPIC + "-dlt";
 
     private final EmailService emailService;
+    private final NotificationDispatcher notificationDispatcher;
+    private final NotificationTemplates notificationTemplates;
+    private final ProcessedEventStore processedEventStore;
+    private final NotificationCoalescer notificationCoalescer;
+    private final AtomicLong retried = new AtomicLong();
+    private final AtomicLong deadLettered = new AtomicLong();
+
+    // Offsets of a batch are committed after this method returns, i.e. only once its emails were sent.
+    // Called from spring.kafka.listener.concurrency threads at once, one per assigned set of partitions
+    // Timed by the container as spring.kafka.listener{name=notification-user-events-*}
+    @KafkaListener(id = "notification-user-events", topics = "user-events", groupId = "notification-group", batch = "true")
+    public void handleUserEvents(List<UserEventDto> events) {
+        int undecodable = firstUndecodable(events);
+        if (undecodable >= 0) {
+            // The records before it are notified and committed, the error handler parks it on the dead letter topic
+            handleUserEvents(events.subList(0, undecodable));
+            throw new BatchListenerFailedException("Undecodable user event", undecodable);
+        }
+        List<UserEventDto> fresh = new ArrayList<>(events.size());
+        Set<UUID> batchIds = new HashSet<>();
+        for (UserEventDto event : events) {
+            UUID eventId = event.getEventId();
+            boolean duplicate = eventId != null && (!batchIds.add(eventId) || processedEventStore.isDuplicate(eventId));
+            fresh.add(duplicate ? null : event);
+        }
+        // Coalesced events are committed with the batch like the rest, they just send no mail. If the batch fails
+        // part-way, the redelivered half of a coalesced pair is notified on its own
+        List<UserEventDto> toNotify = notificationCoalescer.coalesce(fresh);
 
-    @KafkaListener(topics = "user-events", groupId = "notification-group")
-    public void handleUserEvent(UserEventDto event) {
-        String subject = "Уведомление о аккаунте";
-        String text;
-        if ("CREATE".equals(event.getOperation())) {
-            text = "Здравствуйте! Ваш аккаунт на сайте ваш сайт был успешно создан.";
-        } else if ("DELETE".equals(event.getOperation())) {
-            text = "Здравствуйте! Ваш аккаунт был удалён.";
-        } else {
+        List<SimpleMailMessage> messages = new ArrayList<>(events.size());
+        List<Integer> eventIndexes = new ArrayList<>(events.size());
+        for (int i = 0; i < toNotify.size(); i++) {
+            if (toNotify.get(i) == null) {
+                continue;
+            }
+            SimpleMailMessage message = toMessage(toNotify.get(i));
+            if (message != null) {
+                messages.add(message);
+                eventIndexes.add(i);
+            }
+        }
+        try {
+            notificationDispatcher.dispatch(messages);
+        } catch (DispatchException e) {
+            int failedEvent = eventIndexes.get(e.getFirstFailedIndex());
+            // Records before the failed one are committed, and the later ones that other lanes already sent are
+            // redelivered; neither may be notified again
+            List<UUID> notified = new ArrayList<>(eventIds(events.subList(0, failedEvent)));
+            for (int delivered : e.getDeliveredIndexes()) {
+                notified.add(events.get(eventIndexes.get(delivered)).getEventId());
+            }
+            processedEventStore.markProcessed(notified);
+            throw new BatchListenerFailedException(e.getMessage(), e.getCause(), failedEvent);
+        }
+        processedEventStore.markProcessed(eventIds(events));
+    }
+
+    /**
+     * Events the batch listener could not notify, one record at a time. The first attempt runs right away, so a
+     * record that only shared a failed SMTP session with a bad one goes out without delay; after that the record
+     * moves through the {@code -retry-N} topics with exponential backoff and ends on {@code -dlt}. Messages that
+     * cannot be built, such as an unparsable address, go to {@code -dlt} directly. A send refused by the open SMTP
+     * circuit is not an attempt: the record stays where it is until the circuit closes. A recipient over its rate
+     * limit fails the attempt, so the record waits for the next retry topic instead of being dropped.
+     * <p>
+     * Retries never block the user-events partitions, and later events of the same user are not held back behind
+     * one in retry. Per-user ordering therefore only holds for events that go out without a retry.
+     */
+    @RetryableTopic(attempts = "${notification.retry.attempts:5}",
+            backoff = @Backoff(delayExpression = "${notification.retry.initial-delay-ms:5000}",
+                    multiplierExpression = "${notification.retry.multiplier:3}",
+                    maxDelayExpression = "${notification.retry.max-delay-ms:300000}"),
+            exclude = {MailParseException.class, MailPreparationException.class},
+            traversingCauses = "true",
+            topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+            numPartitions = "${notification.retry.partitions:3}")
+    @KafkaListener(id = "notification-retry", topics = RETRY_TOPIC, groupId = "notification-group")
+    public void handleRetry(UserEventDto event) {
+        retried.incrementAndGet();
+        if (processedEventStore.isDuplicate(event.getEventId())) {
             return;
         }
-        emailService.sendEmail(event.getEmail(), subject, text);
+        SimpleMailMessage message = toMessage(event);
+        if (message != null) {
+            notificationDispatcher.dispatchOrDefer(message);
+        }
+        processedEventStore.markProcessed(Collections.singletonList(event.getEventId()));
+    }
+
+    @DltHandler
+    public void handleDeadLetter(UserEventDto event) {
+        deadLettered.incrementAndGet();
+        log.error("Giving up on {} notification for user {}, event {}",
+                event.getOperation(), event.getUserId(), event.getEventId());
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("notification.events.retried", retried, AtomicLong::get)
+                .description("Attempts to notify events parked on the retry topics")
+                .register(registry);
+        FunctionCounter.builder("notification.events.dead", deadLettered, AtomicLong::get)
+                .description("Events parked on the dead-letter topic")
+                .register(registry);
+    }
+
+    // ErrorHandlingDeserializer leaves a null value, which the batch converter hands over as KafkaNull
+    private static int firstUndecodable(List<?> events) {
+        for (int i = 0; i < events.size(); i++) {
+            if (!(events.get(i) instanceof UserEventDto)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static List<UUID> eventIds(List<UserEventDto> events) {
+        return events.stream().map(UserEventDto::getEventId).toList();
+    }
+
+    private SimpleMailMessage toMessage(UserEventDto event) {
+        RenderedNotification notification = notificationTemplates.render(event);
+        if (notification == null) {
+            return null;
+        }
+        return emailService.createMessage(event.getEmail(), notification.subject(), notification.body());
     }
 }
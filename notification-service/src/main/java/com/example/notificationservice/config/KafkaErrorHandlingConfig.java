@@ -0,0 +1,77 @@
+package com.example.notificationservice.config;
+
+import com.example.notificationservice.exception.SmtpUnavailableException;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.retrytopic.RetryTopicConfigurationSupport;
+import org.springframework.kafka.retrytopic.RetryTopicSchedulerWrapper;
+import org.springframework.kafka.support.serializer.SerializationUtils;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.util.backoff.BackOff;
+import org.springframework.util.backoff.FixedBackOff;
+
+import java.util.Map;
+
+@Configuration
+public class KafkaErrorHandlingConfig extends RetryTopicConfigurationSupport {
+
+    // While the SMTP circuit is open a record is retried in place until it gets through, without using up an
+    // attempt. The circuit pauses the containers, so the records already polled wait for it to close
+    static final BackOff WHILE_SMTP_UNAVAILABLE = new FixedBackOff(1000, FixedBackOff.UNLIMITED_ATTEMPTS);
+
+    // No in-place retries for the batch listener: the failed record is published to the retry topic right away
+    // and the rest of the batch is redelivered, so one failing record never holds up its partition. A record that
+    // could not be deserialized would fail on every retry topic too, so it goes to the dead letter topic as the
+    // raw bytes it arrived with. Partition -1 lets the producer partition by the original key
+    @Bean
+    public DefaultErrorHandler kafkaErrorHandler(KafkaTemplate<?, ?> kafkaTemplate,
+                                                 ProducerFactory<Object, Object> producerFactory) {
+        KafkaTemplate<Object, Object> rawTemplate = new KafkaTemplate<>(producerFactory,
+                Map.of(ProducerConfig.VALUE_SERIALIZER_CLASS_CONFIG, ByteArraySerializer.class));
+        DeadLetterPublishingRecoverer recoverer = new DeadLetterPublishingRecoverer(
+                record -> record.value() instanceof byte[] ? rawTemplate : kafkaTemplate,
+                (record, ex) -> new TopicPartition(isUndecodable(record)
+                        ? KafkaConsumer.DEAD_LETTER_TOPIC : KafkaConsumer.RETRY_TOPIC, -1));
+        // A handler built with a no-retry back-off never consults the function, hence the inverted default
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(recoverer, WHILE_SMTP_UNAVAILABLE);
+        errorHandler.setBackOffFunction((record, ex) -> isSmtpUnavailable(ex) ? null : new FixedBackOff(0, 0));
+        return errorHandler;
+    }
+
+    // Same on the retry topics, which would otherwise move the record on to the next one
+    @Override
+    protected void configureBlockingRetries(BlockingRetriesConfigurer blockingRetries) {
+        blockingRetries.retryOn(SmtpUnavailableException.class).backOff(WHILE_SMTP_UNAVAILABLE);
+    }
+
+    // Resumes retry-topic partitions once their back-off has passed; registered by default unless this class is
+    // extended
+    @Bean
+    public RetryTopicSchedulerWrapper retryTopicSchedulerWrapper() {
+        ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+        scheduler.setThreadNamePrefix("retry-topic-");
+        scheduler.initialize();
+        return new RetryTopicSchedulerWrapper(scheduler);
+    }
+
+    private static boolean isUndecodable(ConsumerRecord<?, ?> record) {
+        return record.headers().lastHeader(SerializationUtils.VALUE_DESERIALIZER_EXCEPTION_HEADER) != null;
+    }
+
+    static boolean isSmtpUnavailable(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof SmtpUnavailableException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -1,31 +1,87 @@
 package com.example.notificationservice.controller;
 
-import com.example.notificationservice.dto.UserEventDto;
+import com.example.events.UserEventDto;
+import com.example.notificationservice.exception.QueueFullException;
 import com.example.notificationservice.service.EmailService;
-import lombok.RequiredArgsConstructor;
-import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.RequestBody;
-import org.springframework.web.bind.annotation.RequestMapping;
-import org.springframework.web.bind.annotation.RestController;
+import com.example.notificationservice.service.NotificationCoalescer;
+import com.example.notificationservice.service.NotificationQueue;
+import com.example.notificationservice.template.NotificationTemplates;
+import com.example.notificationservice.template.RenderedNotification;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.server.ResponseStatusException;
 
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accepts notifications onto {@link NotificationQueue} and returns 202 without waiting for SMTP, or 429 with
+ * Retry-After when the queue is full.
+ */
 @RestController
 @RequestMapping("/notifications")
-@RequiredArgsConstructor
 public class NotificationController {
 
     private final EmailService emailService;
+    private final NotificationTemplates notificationTemplates;
+    private final NotificationQueue notificationQueue;
+    private final NotificationCoalescer notificationCoalescer;
+    private final int maxBatchSize;
+
+    public NotificationController(EmailService emailService,
+                                  NotificationTemplates notificationTemplates,
+                                  NotificationQueue notificationQueue,
+                                  NotificationCoalescer notificationCoalescer,
+                                  @Value("${notification.api.max-batch-size:1000}") int maxBatchSize) {
+        this.emailService = emailService;
+        this.notificationTemplates = notificationTemplates;
+        this.notificationQueue = notificationQueue;
+        this.notificationCoalescer = notificationCoalescer;
+        this.maxBatchSize = maxBatchSize;
+    }
 
     @PostMapping("/send")
+    @ResponseStatus(HttpStatus.ACCEPTED)
     public void sendNotification(@RequestBody UserEventDto event) {
-        String subject = "Уведомление о аккаунте";
-        String text;
-        if ("CREATE".equals(event.getOperation())) {
-            text = "Здравствуйте! Ваш аккаунт на сайте ваш сайт был успешно создан.";
-        } else if ("DELETE".equals(event.getOperation())) {
-            text = "Здравствуйте! Ваш аккаунт был удалён.";
-        } else {
+        notificationQueue.enqueue(List.of(toMessage(event)));
+    }
+
+    // All events are queued or none, so a client retrying after 429 never causes duplicates.
+    // Events of one user within the batch are coalesced first
+    @PostMapping("/batch")
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public void sendNotifications(@RequestBody List<UserEventDto> events) {
+        if (events.size() > maxBatchSize) {
+            throw new ResponseStatusException(HttpStatus.PAYLOAD_TOO_LARGE,
+                    "At most " + maxBatchSize + " events per batch");
+        }
+        List<SimpleMailMessage> messages = new ArrayList<>(events.size());
+        for (UserEventDto event : notificationCoalescer.coalesce(events)) {
+            if (event != null) {
+                messages.add(toMessage(event));
+            }
+        }
+        if (!messages.isEmpty()) {
+            notificationQueue.enqueue(messages);
+        }
+    }
+
+    @ExceptionHandler(QueueFullException.class)
+    public ResponseEntity<String> queueFull(QueueFullException e) {
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(e.getMessage());
+    }
+
+    private SimpleMailMessage toMessage(UserEventDto event) {
+        RenderedNotification notification = notificationTemplates.render(event);
+        if (notification == null) {
             throw new IllegalArgumentException("Invalid operation");
         }
-        emailService.sendEmail(event.getEmail(), subject, text);
+        return emailService.createMessage(event.getEmail(), notification.subject(), notification.body());
     }
 }
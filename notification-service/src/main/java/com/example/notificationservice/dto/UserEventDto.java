@@ -1,11 +0,0 @@
-package com.example.notificationservice.dto;
-
-import lombok.Data;
-
-@Data
-public class UserEventDto {
-
-    private String operation;
-    private String email;
-
-}
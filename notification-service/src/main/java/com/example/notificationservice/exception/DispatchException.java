@@ -0,0 +1,29 @@
+package com.example.notificationservice.exception;
+
+import java.util.Collection;
+import java.util.Set;
+
+public class DispatchException extends RuntimeException {
+
+    private final int firstFailedIndex;
+    private final Set<Integer> deliveredIndexes;
+
+    public DispatchException(int firstFailedIndex, Throwable cause) {
+        this(firstFailedIndex, Set.of(), cause);
+    }
+
+    public DispatchException(int firstFailedIndex, Collection<Integer> deliveredIndexes, Throwable cause) {
+        super("Failed to send notifications starting at message " + firstFailedIndex, cause);
+        this.firstFailedIndex = firstFailedIndex;
+        this.deliveredIndexes = Set.copyOf(deliveredIndexes);
+    }
+
+    public int getFirstFailedIndex() {
+        return firstFailedIndex;
+    }
+
+    // Lanes run in parallel, so this includes messages after firstFailedIndex that other lanes got through
+    public Set<Integer> getDeliveredIndexes() {
+        return deliveredIndexes;
+    }
+}
@@ -0,0 +1,8 @@
+package com.example.notificationservice.exception;
+
+public class QueueFullException extends RuntimeException {
+
+    public QueueFullException(int requested, int remaining) {
+        super("Notification queue cannot take " + requested + " messages, " + remaining + " slots left");
+    }
+}
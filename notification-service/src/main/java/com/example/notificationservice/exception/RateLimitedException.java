@@ -0,0 +1,11 @@
+package com.example.notificationservice.exception;
+
+/**
+ * Thrown instead of sending when the recipient is over its rate limit and the message should be sent later.
+ */
+public class RateLimitedException extends RuntimeException {
+
+    public RateLimitedException(String recipient) {
+        super("Recipient " + recipient + " is over its notification rate limit");
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.notificationservice.exception;
+
+import org.springframework.mail.MailSendException;
+
+/**
+ * Thrown instead of contacting the SMTP server while the circuit breaker is open.
+ */
+public class SmtpUnavailableException extends MailSendException {
+
+    public SmtpUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -1,21 +1,31 @@
 package com.example.notificationservice.service;
 
+import io.micrometer.core.annotation.Timed;
 import lombok.RequiredArgsConstructor;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class EmailService {
 
     private final JavaMailSender mailSender;
+    private final SmtpCircuitBreaker circuitBreaker;
+
+    // JavaMailSender sends all messages of one call over a single SMTP connection
+    @Timed(value = "notification.smtp.send", extraTags = {"mode", "session"})
+    public void sendEmails(List<SimpleMailMessage> messages) {
+        circuitBreaker.run(() -> mailSender.send(messages.toArray(new SimpleMailMessage[0])));
+    }
 
-    public void sendEmail(String to, String subject, String text) {
+    public SimpleMailMessage createMessage(String to, String subject, String text) {
         SimpleMailMessage message = new SimpleMailMessage();
         message.setTo(to);
         message.setSubject(subject);
         message.setText(text);
-        mailSender.send(message);
+        return message;
     }
 }
@@ -0,0 +1,101 @@
+package com.example.notificationservice.service;
+
+import com.example.events.UserEventDto;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Folds events of one user that arrive together, so the address only gets mail about the outcome: CREATE then
+ * DELETE sends nothing, CREATE then UPDATE sends one CREATE with the updated details, and UPDATE then UPDATE or
+ * DELETE sends only the later one. Any other sequence, such as DELETE then CREATE, is left as it is.
+ * <p>
+ * The window is whatever arrives in one batch. For the Kafka listener that is one poll, which
+ * {@code spring.kafka.consumer.fetch-max-wait} stretches to a few seconds while traffic is low.
+ */
+@Service
+public class NotificationCoalescer implements MeterBinder {
+
+    private final boolean enabled;
+    private final AtomicLong coalesced = new AtomicLong();
+
+    public NotificationCoalescer(@Value("${notification.coalesce.enabled:true}") boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns the events to notify at their original positions, with {@code null} where an event no longer needs
+     * mail. Positions that were {@code null} in the input stay {@code null}.
+     */
+    public List<UserEventDto> coalesce(List<UserEventDto> events) {
+        List<UserEventDto> result = new ArrayList<>(events);
+        if (!enabled) {
+            return result;
+        }
+        // Position of the last event still to be notified, per address
+        Map<String, Integer> latest = new HashMap<>();
+        for (int i = 0; i < result.size(); i++) {
+            UserEventDto event = result.get(i);
+            if (event == null || event.getEmail() == null) {
+                continue;
+            }
+            String address = event.getEmail().toLowerCase(Locale.ROOT);
+            Integer previousIndex = latest.get(address);
+            UserEventDto previous = previousIndex == null ? null : result.get(previousIndex);
+            if (previous == null || !Objects.equals(previous.getUserId(), event.getUserId())) {
+                latest.put(address, i);
+                continue;
+            }
+            switch (previous.getOperation() + ">" + event.getOperation()) {
+                case "CREATE>DELETE" -> {
+                    result.set(previousIndex, null);
+                    result.set(i, null);
+                    latest.remove(address);
+                    coalesced.addAndGet(2);
+                }
+                case "CREATE>UPDATE" -> {
+                    result.set(previousIndex, merge(previous, event));
+                    result.set(i, null);
+                    coalesced.incrementAndGet();
+                }
+                case "UPDATE>UPDATE", "UPDATE>DELETE" -> {
+                    result.set(previousIndex, null);
+                    latest.put(address, i);
+                    coalesced.incrementAndGet();
+                }
+                default -> latest.put(address, i);
+            }
+        }
+        return result;
+    }
+
+    // The CREATE keeps its place and id, but shows the details as of the UPDATE
+    private static UserEventDto merge(UserEventDto created, UserEventDto updated) {
+        UserEventDto merged = new UserEventDto();
+        merged.setEventId(created.getEventId());
+        merged.setTimestamp(created.getTimestamp());
+        merged.setOperation(created.getOperation());
+        merged.setUserId(created.getUserId());
+        merged.setEmail(updated.getEmail());
+        merged.setName(updated.getName());
+        merged.setLocale(updated.getLocale());
+        return merged;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("notification.coalesced", coalesced, AtomicLong::get)
+                .description("Events folded into another event of the same user, sending no mail of their own")
+                .register(registry);
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.exception.DispatchException;
+import com.example.notificationservice.exception.RateLimitedException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.*;
+
+/**
+ * Sends mail on a bounded pool of virtual threads. A batch is split into lanes by recipient, so within a batch the
+ * messages to one address are sent one after another in batch order, and the lanes are sent in parallel. Each
+ * lane goes out in chunks of {@code notification.dispatch.messages-per-session} messages, every chunk over one
+ * SMTP connection.
+ * <p>
+ * A message takes a token from its recipient's {@link RecipientRateLimiter} bucket before it is sent, and the
+ * token is given back if the send fails. {@link #dispatch} drops messages over the budget, {@link #dispatchOrDefer}
+ * refuses them so they can be retried later. Every message sent or dropped is written to {@link NotificationLog}.
+ */
+@Service
+public class NotificationDispatcher implements MeterBinder {
+
+    private final EmailService emailService;
+    private final RecipientRateLimiter rateLimiter;
+    private final NotificationLog notificationLog;
+    private final ThreadPoolExecutor executor;
+    private final int maxSessions;
+    private final int messagesPerSession;
+
+    public NotificationDispatcher(EmailService emailService,
+                                  RecipientRateLimiter rateLimiter,
+                                  NotificationLog notificationLog,
+                                  @Value("${notification.dispatch.max-sessions:8}") int maxSessions,
+                                  @Value("${notification.dispatch.queue-capacity:1000}") int queueCapacity,
+                                  @Value("${notification.dispatch.messages-per-session:20}") int messagesPerSession) {
+        this.emailService = emailService;
+        this.rateLimiter = rateLimiter;
+        this.notificationLog = notificationLog;
+        this.maxSessions = maxSessions;
+        this.messagesPerSession = messagesPerSession;
+        this.executor = new ThreadPoolExecutor(maxSessions, maxSessions, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                Thread.ofVirtual().name("mail-dispatch-", 0).factory(),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Sends all messages and returns once every chunk is done. If any chunk fails, the exception carries the
+     * index of the first message that may not have been delivered and the indexes of all messages that were.
+     * Rate-limited messages are dropped and count as handled.
+     */
+    public void dispatch(List<SimpleMailMessage> messages) {
+        List<List<Integer>> lanes = lanes(messages);
+        Set<Integer> delivered = ConcurrentHashMap.newKeySet();
+        List<Future<?>> sends = new ArrayList<>(lanes.size());
+        for (List<Integer> lane : lanes) {
+            sends.add(executor.submit(() -> sendLane(messages, lane, delivered)));
+        }
+
+        DispatchException failure = null;
+        for (int i = 0; i < sends.size(); i++) {
+            try {
+                sends.get(i).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                int firstUnconfirmed = lanes.subList(i, lanes.size()).stream().mapToInt(lane -> lane.get(0)).min()
+                        .orElse(messages.size());
+                throw new DispatchException(failure != null
+                        ? Math.min(failure.getFirstFailedIndex(), firstUnconfirmed) : firstUnconfirmed, delivered, e);
+            } catch (ExecutionException e) {
+                DispatchException laneFailure = (DispatchException) e.getCause();
+                if (failure == null || laneFailure.getFirstFailedIndex() < failure.getFirstFailedIndex()) {
+                    failure = laneFailure;
+                }
+            }
+        }
+        if (failure != null) {
+            throw new DispatchException(failure.getFirstFailedIndex(), delivered, failure.getCause());
+        }
+    }
+
+    /**
+     * Sends one message on the calling thread, or throws {@link RateLimitedException} without sending it if the
+     * recipient is over its rate limit.
+     */
+    public void dispatchOrDefer(SimpleMailMessage message) {
+        String recipient = recipient(message);
+        if (!rateLimiter.tryAcquire(recipient)) {
+            throw new RateLimitedException(recipient);
+        }
+        sendLane(List.of(message), List.of(0), new HashSet<>());
+    }
+
+    // Indexes of the messages within their recipient's rate limit, per lane in batch order; one lane per session,
+    // but no more lanes than full chunks
+    private List<List<Integer>> lanes(List<SimpleMailMessage> messages) {
+        List<Integer> allowed = new ArrayList<>(messages.size());
+        List<SimpleMailMessage> limited = new ArrayList<>();
+        for (int i = 0; i < messages.size(); i++) {
+            if (rateLimiter.tryAcquire(recipient(messages.get(i)))) {
+                allowed.add(i);
+            } else {
+                limited.add(messages.get(i));
+            }
+        }
+        notificationLog.append(NotificationLog.Outcome.RATE_LIMITED, limited);
+
+        int chunks = (allowed.size() + messagesPerSession - 1) / messagesPerSession;
+        int laneCount = Math.max(1, Math.min(maxSessions, chunks));
+        List<List<Integer>> lanes = new ArrayList<>(laneCount);
+        for (int i = 0; i < laneCount; i++) {
+            lanes.add(new ArrayList<>());
+        }
+        for (int i : allowed) {
+            lanes.get(Math.floorMod(recipient(messages.get(i)).hashCode(), laneCount)).add(i);
+        }
+        lanes.removeIf(List::isEmpty);
+        return lanes;
+    }
+
+    private void sendLane(List<SimpleMailMessage> messages, List<Integer> lane, Set<Integer> delivered) {
+        for (int from = 0; from < lane.size(); from += messagesPerSession) {
+            List<Integer> indexes = lane.subList(from, Math.min(from + messagesPerSession, lane.size()));
+            List<SimpleMailMessage> chunk = indexes.stream().map(messages::get).toList();
+            try {
+                emailService.sendEmails(chunk);
+            } catch (RuntimeException e) {
+                // Neither this chunk nor the rest of the lane went out, so their recipients get their tokens back
+                lane.subList(from, lane.size()).forEach(i -> rateLimiter.release(recipient(messages.get(i))));
+                throw new DispatchException(lane.get(from), e);
+            }
+            delivered.addAll(indexes);
+            notificationLog.append(NotificationLog.Outcome.SENT, chunk);
+        }
+    }
+
+    private static String recipient(SimpleMailMessage message) {
+        String[] to = message.getTo();
+        return to == null || to.length == 0 ? "" : to[0].toLowerCase(Locale.ROOT);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("notification.dispatch.queued", executor, e -> e.getQueue().size())
+                .description("Mail chunks waiting for a free SMTP session")
+                .register(registry);
+        Gauge.builder("notification.dispatch.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("SMTP sessions currently sending")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        executor.shutdown();
+        executor.awaitTermination(30, TimeUnit.SECONDS);
+    }
+}
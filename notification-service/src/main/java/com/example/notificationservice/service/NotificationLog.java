@@ -0,0 +1,123 @@
+package com.example.notificationservice.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Append-only record of what was sent to whom: one tab-separated line per message with the time, the outcome,
+ * the recipient and the subject, in {@code notification.log.file}. Every call is written through to the OS,
+ * so the log survives a crash of the process, though not of the host. Once the file reaches
+ * {@code notification.log.max-size} it is renamed to {@code <file>.1}, replacing the previous one.
+ * <p>
+ * Write errors are logged and otherwise ignored; the log never holds up mail.
+ */
+@Slf4j
+@Service
+public class NotificationLog {
+
+    public enum Outcome { SENT, RATE_LIMITED }
+
+    private final Path file;
+    private final long maxBytes;
+    private Writer writer;
+    private long bytes;
+
+    public NotificationLog(@Value("${notification.log.file:}") String file,
+                           @Value("${notification.log.max-size:100MB}") DataSize maxSize) {
+        this.file = file.isBlank() ? null : Path.of(file);
+        this.maxBytes = maxSize.toBytes();
+    }
+
+    @PostConstruct
+    public synchronized void open() {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            bytes = Files.exists(file) ? Files.size(file) : 0;
+            writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            log.warn("Cannot open notification log {}, not logging notifications", file, e);
+        }
+    }
+
+    public void append(Outcome outcome, List<SimpleMailMessage> messages) {
+        if (file == null || messages.isEmpty()) {
+            return;
+        }
+        String at = Instant.now().toString();
+        StringBuilder lines = new StringBuilder(messages.size() * 96);
+        for (SimpleMailMessage message : messages) {
+            String[] to = message.getTo();
+            lines.append(at).append('\t').append(outcome).append('\t')
+                    .append(field(to == null || to.length == 0 ? null : to[0])).append('\t')
+                    .append(field(message.getSubject())).append('\n');
+        }
+        write(lines.toString());
+    }
+
+    private synchronized void write(String lines) {
+        if (writer == null) {
+            return;
+        }
+        try {
+            if (bytes >= maxBytes) {
+                roll();
+            }
+            writer.write(lines);
+            writer.flush();
+            // Close enough for rolling: lines are almost always ASCII
+            bytes += lines.length();
+        } catch (IOException e) {
+            log.warn("Cannot write to notification log {}", file, e);
+        }
+    }
+
+    private void roll() throws IOException {
+        writer.close();
+        writer = null;
+        try {
+            Files.move(file, file.resolveSibling(file.getFileName() + ".1"), StandardCopyOption.REPLACE_EXISTING);
+            bytes = 0;
+        } catch (IOException e) {
+            log.warn("Cannot roll notification log {}, appending to it and trying again on the next write", file, e);
+        }
+        // A new file after the move, the current one again if it failed
+        writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+    }
+
+    private static String field(String value) {
+        return value == null ? "" : value.replace('\t', ' ').replace('\n', ' ').replace('\r', ' ');
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        if (writer == null) {
+            return;
+        }
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("Cannot close notification log {}", file, e);
+        }
+        writer = null;
+    }
+}
@@ -0,0 +1,136 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.exception.DispatchException;
+import com.example.notificationservice.exception.QueueFullException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Mail accepted over HTTP, waiting to be sent. One drainer thread takes whatever has queued up, up to
+ * {@code notification.api.drain-batch-size} messages, and hands it to {@link NotificationDispatcher} as one
+ * batch, so messages from many requests share SMTP sessions with each other. While the SMTP circuit is open the
+ * drainer waits, and messages stay queued until it closes.
+ * <p>
+ * Delivery is at most once: the queue lives in memory, and a failed batch is logged and counted, not retried.
+ */
+@Slf4j
+@Service
+public class NotificationQueue implements MeterBinder {
+
+    private static final long CIRCUIT_POLL_MILLIS = 200;
+
+    private final NotificationDispatcher notificationDispatcher;
+    private final SmtpCircuitBreaker circuitBreaker;
+    private final BlockingQueue<SimpleMailMessage> queue;
+    private final int drainBatchSize;
+    private final Thread drainer;
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private volatile boolean running = true;
+
+    public NotificationQueue(NotificationDispatcher notificationDispatcher,
+                             SmtpCircuitBreaker circuitBreaker,
+                             @Value("${notification.api.queue-capacity:10000}") int capacity,
+                             @Value("${notification.api.drain-batch-size:500}") int drainBatchSize) {
+        this.notificationDispatcher = notificationDispatcher;
+        this.circuitBreaker = circuitBreaker;
+        this.queue = new ArrayBlockingQueue<>(capacity);
+        this.drainBatchSize = drainBatchSize;
+        this.drainer = Thread.ofVirtual().name("notification-queue-drainer").start(this::drain);
+    }
+
+    /**
+     * Queues all messages or none of them.
+     *
+     * @throws QueueFullException if they do not all fit
+     */
+    public synchronized void enqueue(List<SimpleMailMessage> messages) {
+        // Only the drainer removes messages, so the free space can only grow until they are all offered
+        int remaining = queue.remainingCapacity();
+        if (messages.size() > remaining) {
+            rejected.addAndGet(messages.size());
+            throw new QueueFullException(messages.size(), remaining);
+        }
+        queue.addAll(messages);
+    }
+
+    int depth() {
+        return queue.size();
+    }
+
+    private void drain() {
+        List<SimpleMailMessage> batch = new ArrayList<>(drainBatchSize);
+        while (running) {
+            try {
+                // Polled rather than waited for, so the virtual thread never blocks inside the breaker's monitor
+                if (circuitBreaker.getState() == SmtpCircuitBreaker.State.OPEN) {
+                    Thread.sleep(CIRCUIT_POLL_MILLIS);
+                    continue;
+                }
+                SimpleMailMessage first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, drainBatchSize - 1);
+                send(batch);
+            } catch (InterruptedException e) {
+                break;
+            }
+            batch.clear();
+        }
+        // Shutting down: send what is left once, without waiting for more
+        queue.drainTo(batch);
+        send(batch);
+    }
+
+    private void send(List<SimpleMailMessage> batch) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        try {
+            notificationDispatcher.dispatch(batch);
+        } catch (DispatchException e) {
+            int unsent = batch.size() - e.getFirstFailedIndex();
+            failed.addAndGet(unsent);
+            log.warn("Dropped up to {} of {} queued notifications", unsent, batch.size(), e);
+        } catch (RuntimeException e) {
+            failed.addAndGet(batch.size());
+            log.warn("Dropped {} queued notifications", batch.size(), e);
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("notification.api.queue.depth", this, NotificationQueue::depth)
+                .description("Notifications accepted over HTTP and not yet handed to the dispatcher")
+                .register(registry);
+        FunctionCounter.builder("notification.api.rejected", rejected, AtomicLong::get)
+                .description("Notifications refused with 429 because the queue was full")
+                .register(registry);
+        FunctionCounter.builder("notification.api.failed", failed, AtomicLong::get)
+                .description("Queued notifications that may not have been sent")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        // The drainer notices within a second and finishes the batch in flight before the final drain
+        running = false;
+        drainer.join(TimeUnit.SECONDS.toMillis(30));
+    }
+}
@@ -0,0 +1,240 @@
+package com.example.notificationservice.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Ids of user events whose notifications were already sent, so relay retries and redeliveries to the same
+ * instance, including after a restart, are dropped without a database lookup.
+ * <p>
+ * The store is local to each instance. A partition that a rebalance moves to another instance is redelivered
+ * from its last committed offset there, and notifications sent past that offset go out again.
+ * <p>
+ * Ids are kept in insertion order in a ring of primitive arrays with an open-addressing index over it, about
+ * 35 bytes per id. The oldest ids are evicted once {@code notification.dedupe.capacity} is reached or they are
+ * older than {@code notification.dedupe.window}. The ring is snapshotted to {@code notification.dedupe.file}
+ * at most every {@code notification.dedupe.flush-interval} and on shutdown, and reloaded on startup; ids
+ * recorded after the last snapshot of a crashed instance are lost and may be notified once more.
+ */
+@Slf4j
+@Service
+public class ProcessedEventStore implements MeterBinder {
+
+    private static final int FILE_VERSION = 1;
+
+    private final int capacity;
+    private final long windowMillis;
+    private final long flushIntervalMillis;
+    private final Path file;
+
+    private final long[] mostBits;
+    private final long[] leastBits;
+    private final long[] processedAt;
+    // Ring slot + 1 per bucket, 0 marks an empty bucket
+    private final int[] index;
+    private final int mask;
+    private int oldest;
+    private int size;
+
+    private long lastFlush;
+    private boolean dirty;
+    private final AtomicLong duplicates = new AtomicLong();
+
+    public ProcessedEventStore(@Value("${notification.dedupe.capacity:100000}") int capacity,
+                               @Value("${notification.dedupe.window:24h}") Duration window,
+                               @Value("${notification.dedupe.flush-interval:30s}") Duration flushInterval,
+                               @Value("${notification.dedupe.file:}") String file) {
+        this.capacity = capacity;
+        this.windowMillis = window.toMillis();
+        this.flushIntervalMillis = flushInterval.toMillis();
+        this.file = file.isBlank() ? null : Path.of(file);
+        this.mostBits = new long[capacity];
+        this.leastBits = new long[capacity];
+        this.processedAt = new long[capacity];
+        this.index = new int[Integer.highestOneBit(Math.max(capacity, 1)) << 2];
+        this.mask = index.length - 1;
+    }
+
+    /**
+     * Returns true if notifications for this event were already sent. Events without an id, from producers
+     * that predate event ids, are never treated as duplicates.
+     */
+    public synchronized boolean isDuplicate(UUID eventId) {
+        if (eventId == null || find(eventId.getMostSignificantBits(), eventId.getLeastSignificantBits()) < 0) {
+            return false;
+        }
+        duplicates.incrementAndGet();
+        return true;
+    }
+
+    public synchronized void markProcessed(Collection<UUID> eventIds) {
+        markProcessed(eventIds, System.currentTimeMillis());
+    }
+
+    synchronized void markProcessed(Collection<UUID> eventIds, long now) {
+        for (UUID eventId : eventIds) {
+            if (eventId != null) {
+                add(eventId.getMostSignificantBits(), eventId.getLeastSignificantBits(), now);
+            }
+        }
+        expire(now);
+        dirty = true;
+        if (now - lastFlush >= flushIntervalMillis) {
+            flush(now);
+        }
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    @PostConstruct
+    public synchronized void load() {
+        if (file == null || !Files.exists(file)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FILE_VERSION) {
+                log.warn("Ignoring processed event snapshot {} with unknown version", file);
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                long most = in.readLong();
+                long least = in.readLong();
+                long at = in.readLong();
+                if (now - at < windowMillis) {
+                    add(most, least, at);
+                }
+            }
+            lastFlush = now;
+            log.info("Loaded {} processed event ids from {}", size, file);
+        } catch (IOException e) {
+            log.warn("Cannot read processed event snapshot {}, starting empty", file, e);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void close() {
+        flush(System.currentTimeMillis());
+    }
+
+    private void flush(long now) {
+        lastFlush = now;
+        if (file == null || !dirty) {
+            return;
+        }
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            Files.createDirectories(parent);
+            Path tmp = Files.createTempFile(parent, file.getFileName().toString(), ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(FILE_VERSION);
+                out.writeInt(size);
+                for (int i = 0; i < size; i++) {
+                    int slot = (oldest + i) % capacity;
+                    out.writeLong(mostBits[slot]);
+                    out.writeLong(leastBits[slot]);
+                    out.writeLong(processedAt[slot]);
+                }
+            }
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            dirty = false;
+        } catch (IOException e) {
+            log.warn("Cannot write processed event snapshot {}", file, e);
+        }
+    }
+
+    private void add(long most, long least, long now) {
+        if (capacity == 0 || find(most, least) >= 0) {
+            return;
+        }
+        if (size == capacity) {
+            evictOldest();
+        }
+        int slot = (oldest + size) % capacity;
+        mostBits[slot] = most;
+        leastBits[slot] = least;
+        processedAt[slot] = now;
+        size++;
+        int bucket = bucket(most, least);
+        while (index[bucket] != 0) {
+            bucket = (bucket + 1) & mask;
+        }
+        index[bucket] = slot + 1;
+    }
+
+    private void expire(long now) {
+        while (size > 0 && now - processedAt[oldest] >= windowMillis) {
+            evictOldest();
+        }
+    }
+
+    private void evictOldest() {
+        int bucket = find(mostBits[oldest], leastBits[oldest]);
+        oldest = (oldest + 1) % capacity;
+        size--;
+
+        // Backward-shift deletion keeps every remaining id reachable from its home bucket without tombstones
+        index[bucket] = 0;
+        int next = bucket;
+        while (true) {
+            next = (next + 1) & mask;
+            if (index[next] == 0) {
+                return;
+            }
+            int slot = index[next] - 1;
+            int home = bucket(mostBits[slot], leastBits[slot]);
+            boolean reachable = bucket <= next ? home > bucket && home <= next : home > bucket || home <= next;
+            if (!reachable) {
+                index[bucket] = index[next];
+                index[next] = 0;
+                bucket = next;
+            }
+        }
+    }
+
+    private int find(long most, long least) {
+        int bucket = bucket(most, least);
+        while (index[bucket] != 0) {
+            int slot = index[bucket] - 1;
+            if (mostBits[slot] == most && leastBits[slot] == least) {
+                return bucket;
+            }
+            bucket = (bucket + 1) & mask;
+        }
+        return -1;
+    }
+
+    private int bucket(long most, long least) {
+        long hash = (most ^ least) * 0x9E3779B97F4A7C15L;
+        return (int) (hash >>> 32) & mask;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("notification.dedupe.size", this, ProcessedEventStore::size)
+                .description("Event ids remembered as already notified")
+                .register(registry);
+        FunctionCounter.builder("notification.dedupe.duplicates", duplicates, AtomicLong::get)
+                .description("Redelivered events dropped without sending mail")
+                .register(registry);
+    }
+}
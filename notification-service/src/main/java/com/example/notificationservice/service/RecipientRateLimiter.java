@@ -0,0 +1,102 @@
+package com.example.notificationservice.service;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Token bucket per recipient address in front of the mailer. Each address may get a burst of
+ * {@code notification.rate-limit.capacity} messages, after which tokens come back evenly over
+ * {@code notification.rate-limit.period}. A capacity of 0 turns the limit off. Tokens taken for messages that
+ * then fail to send are given back.
+ * <p>
+ * Only addresses with a partly empty bucket are tracked; full buckets are dropped every few thousand calls, so
+ * memory follows the number of recently notified addresses.
+ */
+@Service
+public class RecipientRateLimiter implements MeterBinder {
+
+    private static final int SWEEP_EVERY = 4096;
+
+    private final int capacity;
+    private final double tokensPerNano;
+    private final Map<String, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong limited = new AtomicLong();
+
+    public RecipientRateLimiter(@Value("${notification.rate-limit.capacity:10}") int capacity,
+                                @Value("${notification.rate-limit.period:1h}") Duration period) {
+        this.capacity = capacity;
+        this.tokensPerNano = capacity / (double) period.toNanos();
+    }
+
+    /**
+     * Takes a token for the recipient, or returns false if its bucket is empty.
+     */
+    public boolean tryAcquire(String recipient) {
+        return tryAcquire(recipient, System.nanoTime());
+    }
+
+    boolean tryAcquire(String recipient, long now) {
+        if (capacity <= 0) {
+            return true;
+        }
+        if (calls.incrementAndGet() % SWEEP_EVERY == 0) {
+            // Buckets are replaced on every change, so one that was taken from after this check is kept
+            buckets.entrySet().removeIf(entry -> entry.getValue().tokensAt(now, tokensPerNano) >= capacity);
+        }
+        Bucket bucket = buckets.compute(recipient.toLowerCase(Locale.ROOT), (key, current) -> {
+            double tokens = current == null ? capacity : Math.min(capacity, current.tokensAt(now, tokensPerNano));
+            return new Bucket(tokens >= 1 ? tokens - 1 : tokens, now, tokens >= 1);
+        });
+        if (!bucket.acquired()) {
+            limited.incrementAndGet();
+        }
+        return bucket.acquired();
+    }
+
+    /**
+     * Gives back a token taken for a message that was not sent after all.
+     */
+    public void release(String recipient) {
+        release(recipient, System.nanoTime());
+    }
+
+    void release(String recipient, long now) {
+        if (capacity <= 0) {
+            return;
+        }
+        buckets.computeIfPresent(recipient.toLowerCase(Locale.ROOT), (key, current) ->
+                new Bucket(Math.min(capacity, current.tokensAt(now, tokensPerNano) + 1), now, current.acquired()));
+    }
+
+    int tracked() {
+        return buckets.size();
+    }
+
+    private record Bucket(double tokens, long updatedAt, boolean acquired) {
+
+        double tokensAt(long now, double tokensPerNano) {
+            return tokens + (now - updatedAt) * tokensPerNano;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("notification.rate-limit.recipients", this, RecipientRateLimiter::tracked)
+                .description("Recipients whose token bucket is not full")
+                .register(registry);
+        FunctionCounter.builder("notification.rate-limit.rejected", limited, AtomicLong::get)
+                .description("Messages not sent because the recipient was over its rate limit")
+                .register(registry);
+    }
+}
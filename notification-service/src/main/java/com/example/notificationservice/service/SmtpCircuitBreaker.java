@@ -0,0 +1,131 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.exception.SmtpUnavailableException;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.config.KafkaListenerEndpointRegistry;
+import org.springframework.kafka.listener.MessageListenerContainer;
+import org.springframework.lang.Nullable;
+import org.springframework.mail.MailAuthenticationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Guards every call to the SMTP server. After {@code notification.smtp.circuit.failure-threshold} consecutive
+ * send or authentication failures the circuit opens: calls fail fast with {@link SmtpUnavailableException} and all
+ * Kafka listener containers are paused, so no records are consumed while mail cannot go out. After
+ * {@code notification.smtp.circuit.open-duration} the containers resume half-open; the next call closes the
+ * circuit on success or opens it again on failure. Failures caused by the message itself, such as an unparsable
+ * address, do not count.
+ */
+@Slf4j
+@Component
+public class SmtpCircuitBreaker implements MeterBinder {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+    private final KafkaListenerEndpointRegistry listenerRegistry;
+    private final ScheduledExecutorService scheduler =
+            Executors.newSingleThreadScheduledExecutor(Thread.ofPlatform().name("smtp-circuit").daemon().factory());
+    private final AtomicLong rejected = new AtomicLong();
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+
+    /**
+     * @param listenerRegistry containers to pause while the circuit is open, or null to only fail fast
+     */
+    public SmtpCircuitBreaker(@Value("${notification.smtp.circuit.failure-threshold:5}") int failureThreshold,
+                              @Value("${notification.smtp.circuit.open-duration:30s}") Duration openDuration,
+                              @Nullable KafkaListenerEndpointRegistry listenerRegistry) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openDuration.toMillis();
+        this.listenerRegistry = listenerRegistry;
+    }
+
+    public void run(Runnable smtpCall) {
+        synchronized (this) {
+            if (state == State.OPEN) {
+                rejected.incrementAndGet();
+                throw new SmtpUnavailableException("SMTP circuit is open after " + consecutiveFailures + " failures");
+            }
+        }
+        try {
+            smtpCall.run();
+        } catch (MailSendException | MailAuthenticationException e) {
+            onFailure();
+            throw e;
+        }
+        onSuccess();
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    private synchronized void onSuccess() {
+        consecutiveFailures = 0;
+        if (state == State.HALF_OPEN) {
+            state = State.CLOSED;
+            log.info("SMTP circuit closed");
+        }
+    }
+
+    private synchronized void onFailure() {
+        consecutiveFailures++;
+        if (state == State.HALF_OPEN || state == State.CLOSED && consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            log.warn("SMTP circuit opened after {} failures, pausing listeners for {} ms",
+                    consecutiveFailures, openMillis);
+            setListenersPaused(true);
+            scheduler.schedule(this::halfOpen, openMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private synchronized void halfOpen() {
+        state = State.HALF_OPEN;
+        log.info("SMTP circuit half-open, resuming listeners");
+        setListenersPaused(false);
+    }
+
+    private void setListenersPaused(boolean paused) {
+        if (listenerRegistry == null) {
+            return;
+        }
+        for (MessageListenerContainer container : listenerRegistry.getAllListenerContainers()) {
+            if (paused) {
+                container.pause();
+            } else {
+                container.resume();
+            }
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("notification.smtp.circuit.state", this, breaker -> breaker.getState().ordinal())
+                .description("SMTP circuit state: 0 closed, 1 open (listeners paused), 2 half-open")
+                .register(registry);
+        FunctionCounter.builder("notification.smtp.circuit.rejected", rejected, AtomicLong::get)
+                .description("Mail sends rejected without contacting SMTP while the circuit was open")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.notificationservice.template;
+
+
+import com.example.events.UserEventDto;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * A template compiled once into literal segments and placeholder slots, so rendering is a single pass of appends
+ * into a reused buffer. Supported placeholders: {@code {name}} (falls back to the email when the event has no
+ * name) and {@code {email}}.
+ */
+public final class NotificationTemplate {
+
+    enum Placeholder { NAME, EMAIL }
+
+    private static final int MAX_REUSED_BUFFER = 8192;
+    private static final ThreadLocal<StringBuilder> BUFFER = ThreadLocal.withInitial(() -> new StringBuilder(256));
+
+    private final String[] literals;
+    private final Placeholder[] placeholders;
+    private final int literalLength;
+
+    private NotificationTemplate(String[] literals, Placeholder[] placeholders) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    public static NotificationTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<Placeholder> placeholders = new ArrayList<>();
+        int position = 0;
+        int open;
+        while ((open = source.indexOf('{', position)) >= 0) {
+            int close = source.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder at " + open + " in template: " + source);
+            }
+            String name = source.substring(open + 1, close);
+            try {
+                placeholders.add(Placeholder.valueOf(name.toUpperCase(Locale.ROOT)));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown placeholder {" + name + "} in template: " + source);
+            }
+            literals.add(source.substring(position, open));
+            position = close + 1;
+        }
+        literals.add(source.substring(position));
+        return new NotificationTemplate(literals.toArray(new String[0]), placeholders.toArray(new Placeholder[0]));
+    }
+
+    public String render(UserEventDto event) {
+        if (placeholders.length == 0) {
+            return literals[0];
+        }
+        StringBuilder out = BUFFER.get();
+        out.setLength(0);
+        renderTo(event, out);
+        String rendered = out.toString();
+        if (out.capacity() > MAX_REUSED_BUFFER) {
+            BUFFER.remove();
+        }
+        return rendered;
+    }
+
+    public void renderTo(UserEventDto event, StringBuilder out) {
+        int length = literalLength;
+        for (Placeholder placeholder : placeholders) {
+            length += value(placeholder, event).length();
+        }
+        out.ensureCapacity(out.length() + length);
+        for (int i = 0; i < placeholders.length; i++) {
+            out.append(literals[i]).append(value(placeholders[i], event));
+        }
+        out.append(literals[placeholders.length]);
+    }
+
+    private static String value(Placeholder placeholder, UserEventDto event) {
+        String value = switch (placeholder) {
+            case NAME -> event.getName() != null ? event.getName() : event.getEmail();
+            case EMAIL -> event.getEmail();
+        };
+        return value != null ? value : "";
+    }
+}
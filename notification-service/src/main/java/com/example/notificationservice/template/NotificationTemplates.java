@@ -0,0 +1,87 @@
+package com.example.notificationservice.template;
+
+import com.example.events.UserEventDto;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.EncodedResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * Loads {@code templates/notifications_<language>.properties} for every configured language at startup and
+ * compiles the {@code <OPERATION>.subject} / {@code <OPERATION>.body} entries. The event's locale picks the
+ * language, falling back to the default one.
+ */
+@Component
+public class NotificationTemplates {
+
+    private record CompiledPair(NotificationTemplate subject, NotificationTemplate body) {
+    }
+
+    private final Map<String, Map<String, CompiledPair>> byLanguage = new HashMap<>();
+    private final Map<String, CompiledPair> defaults;
+
+    public NotificationTemplates(@Value("${notification.templates.locales:ru,en}") List<String> languages,
+                                 @Value("${notification.templates.default-locale:ru}") String defaultLanguage) {
+        for (String language : languages) {
+            byLanguage.put(language, load(language));
+        }
+        defaults = byLanguage.get(defaultLanguage);
+        if (defaults == null) {
+            throw new IllegalStateException("Default notification locale " + defaultLanguage + " is not configured");
+        }
+    }
+
+    /**
+     * @return the rendered notification, or {@code null} if there is no template for the event's operation
+     */
+    public RenderedNotification render(UserEventDto event) {
+        Map<String, CompiledPair> templates = defaults;
+        if (event.getLocale() != null) {
+            templates = byLanguage.getOrDefault(language(event.getLocale()), defaults);
+        }
+        CompiledPair pair = event.getOperation() != null ? templates.get(event.getOperation()) : null;
+        if (pair == null) {
+            return null;
+        }
+        return new RenderedNotification(pair.subject().render(event), pair.body().render(event));
+    }
+
+    private static String language(String locale) {
+        int separator = locale.indexOf('-') >= 0 ? locale.indexOf('-') : locale.indexOf('_');
+        return (separator >= 0 ? locale.substring(0, separator) : locale).toLowerCase(Locale.ROOT);
+    }
+
+    private static Map<String, CompiledPair> load(String language) {
+        Properties properties;
+        try {
+            properties = PropertiesLoaderUtils.loadProperties(new EncodedResource(
+                    new ClassPathResource("templates/notifications_" + language + ".properties"), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Cannot load notification templates for locale " + language, e);
+        }
+        Map<String, CompiledPair> templates = new HashMap<>();
+        for (String key : properties.stringPropertyNames()) {
+            if (!key.endsWith(".subject")) {
+                continue;
+            }
+            String operation = key.substring(0, key.length() - ".subject".length());
+            String body = properties.getProperty(operation + ".body");
+            if (body == null) {
+                throw new IllegalStateException("Missing " + operation + ".body in notification templates for " + language);
+            }
+            templates.put(operation, new CompiledPair(
+                    NotificationTemplate.compile(properties.getProperty(key)), NotificationTemplate.compile(body)));
+        }
+        return templates;
+    }
+}
@@ -0,0 +1,4 @@
+package com.example.notificationservice.template;
+
+public record RenderedNotification(String subject, String body) {
+}
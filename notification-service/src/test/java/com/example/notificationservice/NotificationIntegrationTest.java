@@ -1,28 +1,50 @@
 package com.example.notificationservice;
 
-import com.example.notificationservice.dto.UserEventDto;
+import com.example.events.UserEventDto;
+import com.example.notificationservice.config.KafkaConsumer;
+import com.example.notificationservice.service.SmtpCircuitBreaker;
 import com.icegreen.greenmail.util.GreenMail;
 import com.icegreen.greenmail.util.ServerSetupTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.apache.kafka.clients.CommonClientConfigs;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.serialization.ByteArrayDeserializer;
+import org.apache.kafka.common.serialization.ByteArraySerializer;
+import org.apache.kafka.common.serialization.StringDeserializer;
+import org.apache.kafka.common.serialization.StringSerializer;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.DefaultKafkaProducerFactory;
 import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.kafka.test.context.EmbeddedKafka;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.DynamicPropertyRegistry;
 import org.springframework.test.context.DynamicPropertySource;
 import org.testcontainers.containers.KafkaContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
 import org.testcontainers.utility.DockerImageName;
 
 import jakarta.mail.internet.MimeMessage;
 
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.*;
 
 @SpringBootTest
-@EmbeddedKafka(partitions = 1, topics = {"user-events"})
+@EmbeddedKafka(partitions = 3, topics = {"user-events"})
 @ActiveProfiles("test")
+@Testcontainers(disabledWithoutDocker = true)
 class NotificationIntegrationTest {
 
     private static final KafkaContainer kafkaContainer = new KafkaContainer(DockerImageName.parse("confluentinc/cp-kafka:7.0.1"));
@@ -43,12 +65,19 @@ class NotificationIntegrationTest {
     @Autowired
     private KafkaTemplate<String, UserEventDto> kafkaTemplate;
 
+    @Autowired
+    private SmtpCircuitBreaker circuitBreaker;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
     private GreenMail greenMail;
 
     @BeforeEach
     void setUp() {
 
         greenMail = new GreenMail(ServerSetupTest.SMTP);
+        greenMail.setUser("test", "test");
         greenMail.start();
 
     }
@@ -95,4 +124,71 @@ class NotificationIntegrationTest {
 
         assertTrue(messages[0].getContent().toString().contains("Ваш аккаунт был удалён"));
     }
+
+    @Test
+    void smtpOutage_opensCircuitAndNotifiesAfterRecovery() throws Exception {
+        greenMail.stop();
+        UserEventDto event = new UserEventDto();
+        event.setOperation("CREATE");
+        event.setUserId(7L);
+        event.setEmail("outage@example.com");
+
+        kafkaTemplate.send("user-events", "7", event);
+
+        await().atMost(Duration.ofSeconds(20)).until(() -> circuitBreaker.getState() == SmtpCircuitBreaker.State.OPEN);
+        greenMail = new GreenMail(ServerSetupTest.SMTP);
+        greenMail.setUser("test", "test");
+        greenMail.start();
+
+        assertTrue(greenMail.waitForIncomingEmail(30000, 1));
+        assertEquals("outage@example.com", greenMail.getReceivedMessages()[0].getAllRecipients()[0].toString());
+        await().atMost(Duration.ofSeconds(5)).until(() -> circuitBreaker.getState() == SmtpCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void unparsableAddress_isParkedOnDeadLetterTopic() {
+        double before = deadLettered();
+        UserEventDto event = new UserEventDto();
+        event.setOperation("CREATE");
+        event.setUserId(8L);
+        event.setEmail("not a valid address");
+
+        kafkaTemplate.send("user-events", "8", event);
+
+        await().atMost(Duration.ofSeconds(20)).until(() -> deadLettered() > before);
+        assertEquals(SmtpCircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    void undecodableRecord_isParkedOnDeadLetterTopicAsRawBytes() throws Exception {
+        byte[] garbage = {(byte) 0xde, (byte) 0xad, (byte) 0xbe, (byte) 0xef};
+        Map<String, Object> config = Map.of(CommonClientConfigs.BOOTSTRAP_SERVERS_CONFIG, kafkaContainer.getBootstrapServers());
+        new KafkaTemplate<>(new DefaultKafkaProducerFactory<>(config, new StringSerializer(), new ByteArraySerializer()))
+                .send("user-events", "9", garbage).get();
+        UserEventDto event = new UserEventDto();
+        event.setOperation("CREATE");
+        event.setUserId(9L);
+        event.setEmail("after-garbage@example.com");
+        kafkaTemplate.send("user-events", "9", event);
+
+        Map<String, Object> consumerConfig = new HashMap<>(config);
+        consumerConfig.put(ConsumerConfig.GROUP_ID_CONFIG, "dead-letter-check");
+        consumerConfig.put(ConsumerConfig.AUTO_OFFSET_RESET_CONFIG, "earliest");
+        try (Consumer<String, byte[]> deadLetters = new DefaultKafkaConsumerFactory<>(consumerConfig,
+                new StringDeserializer(), new ByteArrayDeserializer()).createConsumer()) {
+            deadLetters.subscribe(List.of(KafkaConsumer.DEAD_LETTER_TOPIC));
+            List<byte[]> values = new ArrayList<>();
+            await().atMost(Duration.ofSeconds(20)).until(() -> {
+                deadLetters.poll(Duration.ofMillis(500)).forEach(record -> values.add(record.value()));
+                return values.stream().anyMatch(value -> Arrays.equals(garbage, value));
+            });
+        }
+        // The record behind it on the same partition is not held up
+        assertTrue(greenMail.waitForIncomingEmail(10000, 1));
+        assertEquals("after-garbage@example.com", greenMail.getReceivedMessages()[0].getAllRecipients()[0].toString());
+    }
+
+    private double deadLettered() {
+        return meterRegistry.get("notification.events.dead").functionCounter().count();
+    }
 }
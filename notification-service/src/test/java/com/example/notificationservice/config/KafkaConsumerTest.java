@@ -0,0 +1,195 @@
+package com.example.notificationservice.config;
+
+import com.example.events.UserEventDto;
+import com.example.notificationservice.exception.DispatchException;
+import com.example.notificationservice.exception.RateLimitedException;
+import com.example.notificationservice.service.EmailService;
+import com.example.notificationservice.service.NotificationCoalescer;
+import com.example.notificationservice.service.NotificationDispatcher;
+import com.example.notificationservice.service.ProcessedEventStore;
+import com.example.notificationservice.template.NotificationTemplates;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.KafkaNull;
+import org.springframework.mail.SimpleMailMessage;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class KafkaConsumerTest {
+
+    @Spy
+    private EmailService emailService = new EmailService(null, null);
+
+    @Mock
+    private NotificationDispatcher notificationDispatcher;
+
+    private final NotificationTemplates notificationTemplates = new NotificationTemplates(List.of("ru", "en"), "ru");
+
+    private final ProcessedEventStore processedEventStore =
+            new ProcessedEventStore(100, Duration.ofHours(1), Duration.ofHours(1), "");
+
+    private final NotificationCoalescer notificationCoalescer = new NotificationCoalescer(true);
+
+    @Test
+    void handleUserEvents_dispatchesKnownOperationsOnly() {
+        KafkaConsumer consumer = new KafkaConsumer(emailService, notificationDispatcher, notificationTemplates,
+                processedEventStore, notificationCoalescer);
+
+        UserEventDto update = event("UPDATE", "c@example.com");
+        update.setName("Jane");
+        update.setLocale("en-GB");
+        consumer.handleUserEvents(List.of(event("CREATE", "a@example.com"), event("UNKNOWN", "b@example.com"), update));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SimpleMailMessage>> messages = ArgumentCaptor.forClass(List.class);
+        verify(notificationDispatcher).dispatch(messages.capture());
+        assertEquals(List.of("a@example.com", "c@example.com"),
+                messages.getValue().stream().map(m -> m.getTo()[0]).toList());
+        assertEquals("Hello, Jane! Your account details have been changed.", messages.getValue().get(1).getText());
+    }
+
+    @Test
+    void handleUserEvents_failure_pointsAtOriginalRecordIndex() {
+        KafkaConsumer consumer = new KafkaConsumer(emailService, notificationDispatcher, notificationTemplates,
+                processedEventStore, notificationCoalescer);
+        doThrow(new DispatchException(1, new IllegalStateException("smtp down")))
+                .when(notificationDispatcher).dispatch(anyList());
+
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class,
+                () -> consumer.handleUserEvents(List.of(event("CREATE", "a@example.com"),
+                        event("UNKNOWN", "b@example.com"), event("DELETE", "c@example.com"))));
+
+        assertEquals(2, e.getIndex());
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void handleUserEvents_undecodableRecord_notifiesTheRecordsBeforeItAndFailsOnIt() {
+        KafkaConsumer consumer = new KafkaConsumer(emailService, notificationDispatcher, notificationTemplates,
+                processedEventStore, notificationCoalescer);
+        List<UserEventDto> events = (List) List.of(event("CREATE", "a@example.com"), KafkaNull.INSTANCE,
+                event("CREATE", "c@example.com"));
+
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class,
+                () -> consumer.handleUserEvents(events));
+
+        assertEquals(1, e.getIndex());
+        ArgumentCaptor<List<SimpleMailMessage>> messages = ArgumentCaptor.forClass(List.class);
+        verify(notificationDispatcher).dispatch(messages.capture());
+        assertEquals(List.of("a@example.com"), messages.getValue().stream().map(m -> m.getTo()[0]).toList());
+    }
+
+    @Test
+    void handleUserEvents_redeliveredEvent_isNotSentAgain() {
+        KafkaConsumer consumer = new KafkaConsumer(emailService, notificationDispatcher, notificationTemplates,
+                processedEventStore, notificationCoalescer);
+        UserEventDto created = event("CREATE", "a@example.com");
+        created.setEventId(UUID.randomUUID());
+        UserEventDto updated = event("UPDATE", "b@example.com");
+        updated.setEventId(UUID.randomUUID());
+
+        consumer.handleUserEvents(List.of(created));
+        consumer.handleUserEvents(List.of(created, updated, updated));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SimpleMailMessage>> messages = ArgumentCaptor.forClass(List.class);
+        verify(notificationDispatcher, times(2)).dispatch(messages.capture());
+        assertEquals(List.of("b@example.com"),
+                messages.getAllValues().get(1).stream().map(m -> m.getTo()[0]).toList());
+    }
+
+    @Test
+    void handleUserEvents_failure_remembersCommittedPrefixOnly() {
+        KafkaConsumer consumer = new KafkaConsumer(emailService, notificationDispatcher, notificationTemplates,
+                processedEventStore, notificationCoalescer);
+        UserEventDto first = event("CREATE", "a@example.com");
+        first.setEventId(UUID.randomUUID());
+        UserEventDto second = event("CREATE", "b@example.com");
+        second.setEventId(UUID.randomUUID());
+        doThrow(new DispatchException(1, new IllegalStateException("smtp down")))
+                .when(notificationDispatcher).dispatch(anyList());
+
+        assertThrows(BatchListenerFailedException.class, () -> consumer.handleUserEvents(List.of(first, second)));
+
+        assertTrue(processedEventStore.isDuplicate(first.getEventId()));
+        assertFalse(processedEventStore.isDuplicate(second.getEventId()));
+    }
+
+    @Test
+    void handleUserEvents_failure_remembersEventsOtherLanesDeliveredPastIt() {
+        KafkaConsumer consumer = new KafkaConsumer(emailService, notificationDispatcher, notificationTemplates,
+                processedEventStore, notificationCoalescer);
+        List<UserEventDto> events = List.of(event("CREATE", "a@example.com"), event("CREATE", "b@example.com"),
+                event("CREATE", "c@example.com"));
+        events.forEach(event -> event.setEventId(UUID.randomUUID()));
+        // a@ failed on lane A while lane B got b@ through
+        doThrow(new DispatchException(0, Set.of(1), new IllegalStateException("smtp down")))
+                .when(notificationDispatcher).dispatch(anyList());
+
+        BatchListenerFailedException e = assertThrows(BatchListenerFailedException.class,
+                () -> consumer.handleUserEvents(events));
+
+        assertEquals(0, e.getIndex());
+        assertFalse(processedEventStore.isDuplicate(events.get(0).getEventId()));
+        assertTrue(processedEventStore.isDuplicate(events.get(1).getEventId()));
+        assertFalse(processedEventStore.isDuplicate(events.get(2).getEventId()));
+    }
+
+    @Test
+    void handleUserEvents_createThenDelete_sendsNothingButMarksBothProcessed() {
+        KafkaConsumer consumer = new KafkaConsumer(emailService, notificationDispatcher, notificationTemplates,
+                processedEventStore, notificationCoalescer);
+        UserEventDto created = event("CREATE", "a@example.com");
+        created.setEventId(UUID.randomUUID());
+        created.setUserId(1L);
+        UserEventDto deleted = event("DELETE", "A@example.com");
+        deleted.setEventId(UUID.randomUUID());
+        deleted.setUserId(1L);
+
+        consumer.handleUserEvents(List.of(created, event("CREATE", "b@example.com"), deleted));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SimpleMailMessage>> messages = ArgumentCaptor.forClass(List.class);
+        verify(notificationDispatcher).dispatch(messages.capture());
+        assertEquals(List.of("b@example.com"), messages.getValue().stream().map(m -> m.getTo()[0]).toList());
+        assertTrue(processedEventStore.isDuplicate(created.getEventId()));
+        assertTrue(processedEventStore.isDuplicate(deleted.getEventId()));
+    }
+
+    @Test
+    void handleRetry_rateLimited_failsAttemptWithoutMarkingProcessed() {
+        KafkaConsumer consumer = new KafkaConsumer(emailService, notificationDispatcher, notificationTemplates,
+                processedEventStore, notificationCoalescer);
+        UserEventDto event = event("CREATE", "a@example.com");
+        event.setEventId(UUID.randomUUID());
+        doThrow(new RateLimitedException("a@example.com")).when(notificationDispatcher).dispatchOrDefer(any());
+
+        assertThrows(RateLimitedException.class, () -> consumer.handleRetry(event));
+
+        assertFalse(processedEventStore.isDuplicate(event.getEventId()));
+    }
+
+    private UserEventDto event(String operation, String email) {
+        UserEventDto event = new UserEventDto();
+        event.setOperation(operation);
+        event.setEmail(email);
+        return event;
+    }
+}
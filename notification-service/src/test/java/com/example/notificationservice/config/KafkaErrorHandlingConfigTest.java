@@ -0,0 +1,46 @@
+package com.example.notificationservice.config;
+
+import com.example.notificationservice.exception.DispatchException;
+import com.example.notificationservice.exception.SmtpUnavailableException;
+import org.apache.kafka.clients.consumer.Consumer;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.apache.kafka.clients.producer.ProducerRecord;
+import org.apache.kafka.common.TopicPartition;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.KafkaException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.core.ProducerFactory;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.listener.ListenerExecutionFailedException;
+import org.springframework.kafka.listener.MessageListenerContainer;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.Mockito.*;
+
+class KafkaErrorHandlingConfigTest {
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void smtpUnavailable_seeksBackWithoutPublishingToRetryTopic() {
+        KafkaTemplate<Object, Object> kafkaTemplate = mock(KafkaTemplate.class);
+        ProducerFactory<Object, Object> producerFactory = mock(ProducerFactory.class);
+        when(producerFactory.copyWithConfigurationOverride(anyMap())).thenReturn(producerFactory);
+        DefaultErrorHandler errorHandler = new KafkaErrorHandlingConfig().kafkaErrorHandler(kafkaTemplate, producerFactory);
+        Consumer<Object, Object> consumer = mock(Consumer.class);
+        ConsumerRecord<Object, Object> record = new ConsumerRecord<>("user-events", 0, 42L, "1", "event");
+        Exception failure = new ListenerExecutionFailedException("Listener failed",
+                new DispatchException(0, new SmtpUnavailableException("SMTP circuit is open")));
+
+        for (int attempt = 0; attempt < 3; attempt++) {
+            assertThrows(KafkaException.class, () -> errorHandler.handleRemaining(failure, List.of(record), consumer,
+                    mock(MessageListenerContainer.class)));
+        }
+
+        verify(consumer, times(3)).seek(new TopicPartition("user-events", 0), 42L);
+        verify(kafkaTemplate, never()).send(any(ProducerRecord.class));
+    }
+}
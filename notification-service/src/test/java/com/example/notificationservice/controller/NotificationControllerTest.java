@@ -1,15 +1,20 @@
 package com.example.notificationservice.controller;
 
-import com.example.notificationservice.dto.UserEventDto;
-import com.example.notificationservice.service.EmailService;
+import com.example.notificationservice.exception.QueueFullException;
+import com.example.notificationservice.service.NotificationQueue;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -19,15 +24,53 @@ class NotificationControllerTest {
     @Autowired
     private MockMvc mockMvc;
 
-    @Test
-    void sendNotification_validEvent_returnsOk() throws Exception {
-        UserEventDto event = new UserEventDto();
-        event.setOperation("CREATE");
-        event.setEmail("test@example.com");
+    @MockBean
+    private NotificationQueue notificationQueue;
 
+    @Test
+    void sendNotification_validEvent_returnsAccepted() throws Exception {
         mockMvc.perform(post("/notifications/send")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content("{\"operation\":\"CREATE\",\"email\":\"test@example.com\"}"))
-                .andExpect(status().isOk());
+                .andExpect(status().isAccepted());
+
+        verify(notificationQueue).enqueue(argThat(messages ->
+                messages.size() == 1 && "test@example.com".equals(messages.get(0).getTo()[0])));
+    }
+
+    @Test
+    void sendNotifications_batch_queuesAllEventsAtOnce() throws Exception {
+        mockMvc.perform(post("/notifications/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"operation\":\"CREATE\",\"email\":\"a@example.com\"},"
+                                + "{\"operation\":\"DELETE\",\"email\":\"b@example.com\",\"locale\":\"en\"}]"))
+                .andExpect(status().isAccepted());
+
+        verify(notificationQueue).enqueue(argThat(messages -> messages.size() == 2));
+    }
+
+    @Test
+    void sendNotifications_createThenDeleteInBatch_queuesOnlyOtherUsers() throws Exception {
+        mockMvc.perform(post("/notifications/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"operation\":\"CREATE\",\"userId\":1,\"email\":\"a@example.com\"},"
+                                + "{\"operation\":\"CREATE\",\"userId\":2,\"email\":\"b@example.com\"},"
+                                + "{\"operation\":\"DELETE\",\"userId\":1,\"email\":\"a@example.com\"}]"))
+                .andExpect(status().isAccepted());
+
+        verify(notificationQueue).enqueue(argThat(messages ->
+                messages.size() == 1 && "b@example.com".equals(messages.get(0).getTo()[0])));
+    }
+
+    @Test
+    void sendNotifications_queueFull_returnsTooManyRequests() throws Exception {
+        doThrow(new QueueFullException(2, 1)).when(notificationQueue).enqueue(anyList());
+
+        mockMvc.perform(post("/notifications/batch")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[{\"operation\":\"CREATE\",\"email\":\"a@example.com\"},"
+                                + "{\"operation\":\"CREATE\",\"email\":\"b@example.com\"}]"))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string("Retry-After", "1"));
     }
 }
@@ -0,0 +1,70 @@
+package com.example.notificationservice.service;
+
+import com.example.events.UserEventDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationCoalescerTest {
+
+    private final NotificationCoalescer coalescer = new NotificationCoalescer(true);
+
+    @Test
+    void coalesce_createThenDelete_leavesNothingForThatUser() {
+        List<UserEventDto> result = coalescer.coalesce(List.of(
+                event("CREATE", 1L, "a@example.com", "Ann"),
+                event("CREATE", 2L, "b@example.com", "Bob"),
+                event("UPDATE", 1L, "a@example.com", "Anna"),
+                event("DELETE", 1L, "A@example.com", "Anna")));
+
+        assertNull(result.get(0));
+        assertNotNull(result.get(1));
+        assertNull(result.get(2));
+        assertNull(result.get(3));
+    }
+
+    @Test
+    void coalesce_createThenUpdate_sendsCreateWithLatestDetails() {
+        UserEventDto created = event("CREATE", 1L, "a@example.com", "Ann");
+
+        List<UserEventDto> result = coalescer.coalesce(Arrays.asList(created, null,
+                event("UPDATE", 1L, "a@example.com", "Anna"), event("UPDATE", 2L, "b@example.com", "Bob"),
+                event("UPDATE", 2L, "b@example.com", "Bobby")));
+
+        assertEquals("CREATE", result.get(0).getOperation());
+        assertEquals("Anna", result.get(0).getName());
+        assertEquals("Ann", created.getName());
+        assertNull(result.get(1));
+        assertNull(result.get(2));
+        assertNull(result.get(3));
+        assertEquals("Bobby", result.get(4).getName());
+    }
+
+    @Test
+    void coalesce_deleteThenCreate_keepsBoth() {
+        List<UserEventDto> events = List.of(event("DELETE", 1L, "a@example.com", "Ann"),
+                event("CREATE", 3L, "a@example.com", "Ann"));
+
+        assertEquals(events, coalescer.coalesce(events));
+    }
+
+    @Test
+    void coalesce_disabled_keepsEveryEvent() {
+        List<UserEventDto> events = List.of(event("CREATE", 1L, "a@example.com", "Ann"),
+                event("DELETE", 1L, "a@example.com", "Ann"));
+
+        assertEquals(events, new NotificationCoalescer(false).coalesce(events));
+    }
+
+    private UserEventDto event(String operation, Long userId, String email, String name) {
+        UserEventDto event = new UserEventDto();
+        event.setOperation(operation);
+        event.setUserId(userId);
+        event.setEmail(email);
+        event.setName(name);
+        return event;
+    }
+}
@@ -0,0 +1,169 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.exception.DispatchException;
+import com.example.notificationservice.exception.RateLimitedException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class NotificationDispatcherTest {
+
+    @Mock
+    private EmailService emailService;
+
+    private NotificationDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        dispatcher = new NotificationDispatcher(emailService, new RecipientRateLimiter(5, Duration.ofHours(1)),
+                new NotificationLog("", DataSize.ofMegabytes(1)), 2, 10, 3);
+    }
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        dispatcher.shutdown();
+    }
+
+    @Test
+    void dispatch_sendsEveryMessageInSessionSizedChunks() {
+        dispatcher.dispatch(messages(7));
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<SimpleMailMessage>> chunks = ArgumentCaptor.forClass(List.class);
+        verify(emailService, atLeast(3)).sendEmails(chunks.capture());
+        assertTrue(chunks.getAllValues().stream().allMatch(chunk -> chunk.size() <= 3));
+        assertEquals(7, chunks.getAllValues().stream().mapToInt(List::size).sum());
+    }
+
+    @Test
+    void dispatch_keepsBatchOrderPerRecipient() {
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            List<SimpleMailMessage> chunk = invocation.getArgument(0);
+            chunk.forEach(message -> sent.add(message.getTo()[0] + ":" + message.getText()));
+            return null;
+        }).when(emailService).sendEmails(anyList());
+        List<SimpleMailMessage> messages = new ArrayList<>();
+        for (int i = 0; i < 12; i++) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo(i % 3 == 0 ? "Same@example.com" : "user" + i + "@example.com");
+            message.setText(i % 3 == 0 ? (i < 6 ? "CREATE" : "DELETE") + i : "other");
+            messages.add(message);
+        }
+
+        dispatcher.dispatch(messages);
+
+        assertEquals(List.of("Same@example.com:CREATE0", "Same@example.com:CREATE3",
+                        "Same@example.com:DELETE6", "Same@example.com:DELETE9"),
+                sent.stream().filter(entry -> entry.startsWith("Same@")).toList());
+    }
+
+    @Test
+    void dispatch_failedChunk_reportsIndexBeforeWhichAllWereDelivered() {
+        List<String> delivered = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            List<SimpleMailMessage> chunk = invocation.getArgument(0);
+            if (chunk.stream().anyMatch(message -> "user3@example.com".equals(message.getTo()[0]))) {
+                throw new MailSendException("smtp down");
+            }
+            chunk.forEach(message -> delivered.add(message.getTo()[0]));
+            return null;
+        }).when(emailService).sendEmails(anyList());
+
+        DispatchException e = assertThrows(DispatchException.class, () -> dispatcher.dispatch(messages(7)));
+
+        assertTrue(e.getFirstFailedIndex() <= 3);
+        for (int i = 0; i < e.getFirstFailedIndex(); i++) {
+            assertTrue(delivered.contains("user" + i + "@example.com"));
+        }
+    }
+
+    @Test
+    void dispatch_failedLane_reportsLaterMessagesOtherLanesDelivered() {
+        List<Integer> delivered = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            List<SimpleMailMessage> chunk = invocation.getArgument(0);
+            if (chunk.stream().anyMatch(message -> "user0@example.com".equals(message.getTo()[0]))) {
+                throw new MailSendException("smtp down");
+            }
+            chunk.forEach(message -> delivered.add(Integer.parseInt(message.getTo()[0].replaceAll("\\D", ""))));
+            return null;
+        }).when(emailService).sendEmails(anyList());
+
+        DispatchException e = assertThrows(DispatchException.class, () -> dispatcher.dispatch(messages(7)));
+
+        assertEquals(0, e.getFirstFailedIndex());
+        assertFalse(delivered.isEmpty());
+        assertEquals(Set.copyOf(delivered), e.getDeliveredIndexes());
+    }
+
+    @Test
+    void dispatch_recipientOverRateLimit_isSkippedWithoutFailing() {
+        List<String> sent = Collections.synchronizedList(new ArrayList<>());
+        doAnswer(invocation -> {
+            List<SimpleMailMessage> chunk = invocation.getArgument(0);
+            chunk.forEach(message -> sent.add(message.getTo()[0]));
+            return null;
+        }).when(emailService).sendEmails(anyList());
+        List<SimpleMailMessage> messages = new ArrayList<>(messages(3));
+        for (int i = 0; i < 7; i++) {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo("busy@example.com");
+            messages.add(message);
+        }
+
+        dispatcher.dispatch(messages);
+
+        assertEquals(5, sent.stream().filter("busy@example.com"::equals).count());
+        assertEquals(8, sent.size());
+    }
+
+    @Test
+    void dispatchOrDefer_failedSendsKeepBudgetAndLimitIsRefused() {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo("busy@example.com");
+        doThrow(new MailSendException("connection refused")).when(emailService).sendEmails(anyList());
+        for (int i = 0; i < 8; i++) {
+            assertThrows(DispatchException.class, () -> dispatcher.dispatchOrDefer(message));
+        }
+        doNothing().when(emailService).sendEmails(anyList());
+
+        for (int i = 0; i < 5; i++) {
+            dispatcher.dispatchOrDefer(message);
+        }
+        assertThrows(RateLimitedException.class, () -> dispatcher.dispatchOrDefer(message));
+
+        verify(emailService, times(13)).sendEmails(anyList());
+    }
+
+    private List<SimpleMailMessage> messages(int count) {
+        return IntStream.range(0, count).mapToObj(i -> {
+            SimpleMailMessage message = new SimpleMailMessage();
+            message.setTo("user" + i + "@example.com");
+            return message;
+        }).toList();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.notificationservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.mail.SimpleMailMessage;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationLogTest {
+
+    @Test
+    void append_writesOneLinePerMessageAndSurvivesReopen(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("notification-log.tsv");
+        NotificationLog log = new NotificationLog(file.toString(), DataSize.ofMegabytes(1));
+        log.open();
+        log.append(NotificationLog.Outcome.SENT, List.of(message("a@example.com", "Hello"),
+                message("b@example.com", "Tab\tin subject")));
+        log.close();
+
+        NotificationLog reopened = new NotificationLog(file.toString(), DataSize.ofMegabytes(1));
+        reopened.open();
+        reopened.append(NotificationLog.Outcome.RATE_LIMITED, List.of(message("a@example.com", "Again")));
+        reopened.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(3, lines.size());
+        assertTrue(lines.get(0).endsWith("\tSENT\ta@example.com\tHello"));
+        assertTrue(lines.get(1).endsWith("\tSENT\tb@example.com\tTab in subject"));
+        assertTrue(lines.get(2).endsWith("\tRATE_LIMITED\ta@example.com\tAgain"));
+    }
+
+    @Test
+    void append_beyondMaxSize_rollsToPreviousFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("notification-log.tsv");
+        NotificationLog log = new NotificationLog(file.toString(), DataSize.ofBytes(100));
+        log.open();
+        for (int i = 0; i < 5; i++) {
+            log.append(NotificationLog.Outcome.SENT, List.of(message("user" + i + "@example.com", "Hello")));
+        }
+        log.close();
+
+        // About 60 bytes a line, so the file rolls before every third append and only one older file is kept
+        List<String> previous = Files.readAllLines(dir.resolve("notification-log.tsv.1"));
+        List<String> current = Files.readAllLines(file);
+        assertEquals(2, previous.size());
+        assertTrue(previous.get(1).contains("user3@example.com"));
+        assertEquals(1, current.size());
+        assertTrue(current.get(0).contains("user4@example.com"));
+    }
+
+    @Test
+    void append_rollFails_keepsAppendingToCurrentFile(@TempDir Path dir) throws IOException {
+        Path file = dir.resolve("notification-log.tsv");
+        // A non-empty directory where the previous file goes makes every move fail
+        Files.createDirectories(dir.resolve("notification-log.tsv.1"));
+        Files.createFile(dir.resolve("notification-log.tsv.1").resolve("blocker"));
+        NotificationLog log = new NotificationLog(file.toString(), DataSize.ofBytes(100));
+        log.open();
+        for (int i = 0; i < 5; i++) {
+            log.append(NotificationLog.Outcome.SENT, List.of(message("user" + i + "@example.com", "Hello")));
+        }
+        log.close();
+
+        List<String> lines = Files.readAllLines(file);
+        assertEquals(5, lines.size());
+        assertTrue(lines.get(4).contains("user4@example.com"));
+    }
+
+    private SimpleMailMessage message(String to, String subject) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(to);
+        message.setSubject(subject);
+        return message;
+    }
+}
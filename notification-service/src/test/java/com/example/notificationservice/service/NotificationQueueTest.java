@@ -0,0 +1,138 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.exception.DispatchException;
+import com.example.notificationservice.exception.QueueFullException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailSendException;
+import org.springframework.mail.SimpleMailMessage;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+class NotificationQueueTest {
+
+    private final NotificationDispatcher dispatcher = mock(NotificationDispatcher.class);
+    private final SmtpCircuitBreaker circuitBreaker = new SmtpCircuitBreaker(1, Duration.ofMillis(500), null);
+    private final AtomicBoolean interrupted = new AtomicBoolean();
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final List<List<String>> batches = new ArrayList<>();
+    private NotificationQueue queue;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        release.countDown();
+        queue.shutdown();
+    }
+
+    @Test
+    void enqueue_messagesQueuedWhileDispatching_areSentAsOneBatch() {
+        blockFirstDispatch();
+        queue = new NotificationQueue(dispatcher, circuitBreaker, 100, 50);
+
+        queue.enqueue(List.of(message("first@example.com")));
+        await().atMost(Duration.ofSeconds(2)).until(() -> batches.size() == 1);
+        queue.enqueue(List.of(message("a@example.com")));
+        queue.enqueue(List.of(message("b@example.com"), message("c@example.com")));
+        release.countDown();
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> batches.size() == 2);
+        assertEquals(List.of("a@example.com", "b@example.com", "c@example.com"), batches.get(1));
+    }
+
+    @Test
+    void enqueue_full_rejectsWholeRequest() {
+        blockFirstDispatch();
+        queue = new NotificationQueue(dispatcher, circuitBreaker, 3, 50);
+        queue.enqueue(List.of(message("first@example.com")));
+        await().atMost(Duration.ofSeconds(2)).until(() -> batches.size() == 1);
+
+        queue.enqueue(List.of(message("a@example.com"), message("b@example.com")));
+        assertThrows(QueueFullException.class,
+                () -> queue.enqueue(List.of(message("c@example.com"), message("d@example.com"))));
+
+        assertEquals(2, queue.depth());
+    }
+
+    @Test
+    void dispatchFailure_drainerKeepsSending() {
+        doThrow(new DispatchException(0, new MailSendException("connection refused")))
+                .doNothing()
+                .when(dispatcher).dispatch(anyList());
+        queue = new NotificationQueue(dispatcher, circuitBreaker, 100, 50);
+
+        queue.enqueue(List.of(message("a@example.com")));
+        verify(dispatcher, timeout(2000)).dispatch(anyList());
+        queue.enqueue(List.of(message("b@example.com")));
+
+        verify(dispatcher, timeout(2000).times(2)).dispatch(anyList());
+    }
+
+    @Test
+    void circuitOpen_drainerWaitsUntilItHalfOpens() {
+        assertThrows(MailSendException.class, () -> circuitBreaker.run(() -> {
+            throw new MailSendException("connection refused");
+        }));
+        queue = new NotificationQueue(dispatcher, circuitBreaker, 100, 50);
+
+        queue.enqueue(List.of(message("a@example.com")));
+
+        verify(dispatcher, after(300).never()).dispatch(anyList());
+        verify(dispatcher, timeout(2000)).dispatch(anyList());
+    }
+
+    @Test
+    void shutdown_letsBatchInFlightFinishThenSendsTheRest() throws InterruptedException {
+        blockFirstDispatch();
+        queue = new NotificationQueue(dispatcher, circuitBreaker, 100, 50);
+        queue.enqueue(List.of(message("first@example.com")));
+        await().atMost(Duration.ofSeconds(2)).until(() -> batches.size() == 1);
+        queue.enqueue(List.of(message("a@example.com")));
+
+        Thread stopping = Thread.ofVirtual().start(() -> {
+            try {
+                queue.shutdown();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        Thread.sleep(200);
+        release.countDown();
+        stopping.join();
+
+        assertFalse(interrupted.get());
+        assertEquals(List.of(List.of("first@example.com"), List.of("a@example.com")), batches);
+    }
+
+    private void blockFirstDispatch() {
+        doAnswer(invocation -> {
+            List<SimpleMailMessage> batch = invocation.getArgument(0);
+            synchronized (batches) {
+                batches.add(batch.stream().map(message -> message.getTo()[0]).toList());
+            }
+            if (batches.size() == 1) {
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    interrupted.set(true);
+                }
+            }
+            return null;
+        }).when(dispatcher).dispatch(anyList());
+    }
+
+    private static SimpleMailMessage message(String to) {
+        SimpleMailMessage message = new SimpleMailMessage();
+        message.setTo(to);
+        return message;
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.notificationservice.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProcessedEventStoreTest {
+
+    private static final Duration HOUR = Duration.ofHours(1);
+
+    @Test
+    void markProcessed_evictsOldestBeyondCapacity() {
+        ProcessedEventStore store = new ProcessedEventStore(1000, HOUR, HOUR, "");
+        Random random = new Random(42);
+        Deque<UUID> expected = new ArrayDeque<>();
+
+        // Enough churn to wrap the ring several times and exercise deletion from collision chains
+        for (int i = 0; i < 20_000; i++) {
+            UUID id = new UUID(random.nextLong(), random.nextLong());
+            store.markProcessed(List.of(id), 0);
+            expected.addLast(id);
+            if (expected.size() > 1000) {
+                assertFalse(store.isDuplicate(expected.removeFirst()));
+            }
+        }
+
+        assertEquals(1000, store.size());
+        for (UUID id : expected) {
+            assertTrue(store.isDuplicate(id));
+        }
+    }
+
+    @Test
+    void markProcessed_expiresIdsOlderThanWindow() {
+        ProcessedEventStore store = new ProcessedEventStore(100, Duration.ofMinutes(10), HOUR, "");
+        UUID old = UUID.randomUUID();
+        UUID recent = UUID.randomUUID();
+
+        store.markProcessed(List.of(old), 0);
+        store.markProcessed(List.of(recent), Duration.ofMinutes(10).toMillis());
+
+        assertFalse(store.isDuplicate(old));
+        assertTrue(store.isDuplicate(recent));
+        assertFalse(store.isDuplicate(null));
+    }
+
+    @Test
+    void close_snapshotIsReloadedOnStartup(@TempDir Path dir) {
+        String file = dir.resolve("processed-events.bin").toString();
+        ProcessedEventStore store = new ProcessedEventStore(100, HOUR, HOUR, file);
+        List<UUID> ids = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            ids.add(UUID.randomUUID());
+        }
+        store.markProcessed(ids);
+        store.close();
+
+        ProcessedEventStore restarted = new ProcessedEventStore(100, HOUR, HOUR, file);
+        restarted.load();
+
+        assertEquals(10, restarted.size());
+        assertTrue(restarted.isDuplicate(ids.get(7)));
+        assertFalse(restarted.isDuplicate(UUID.randomUUID()));
+    }
+}
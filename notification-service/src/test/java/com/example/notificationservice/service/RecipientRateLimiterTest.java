@@ -0,0 +1,51 @@
+package com.example.notificationservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecipientRateLimiterTest {
+
+    private static final long MINUTE = Duration.ofMinutes(1).toNanos();
+
+    @Test
+    void tryAcquire_allowsBurstThenRefillsOverPeriod() {
+        RecipientRateLimiter limiter = new RecipientRateLimiter(3, Duration.ofMinutes(3));
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(limiter.tryAcquire("a@example.com", 0));
+        }
+        assertFalse(limiter.tryAcquire("A@example.com", 0));
+        assertTrue(limiter.tryAcquire("b@example.com", 0));
+
+        assertTrue(limiter.tryAcquire("a@example.com", MINUTE));
+        assertFalse(limiter.tryAcquire("a@example.com", MINUTE));
+    }
+
+    @Test
+    void release_givesTokenBackUpToCapacity() {
+        RecipientRateLimiter limiter = new RecipientRateLimiter(2, Duration.ofHours(1));
+        assertTrue(limiter.tryAcquire("a@example.com", 0));
+        assertTrue(limiter.tryAcquire("a@example.com", 0));
+
+        limiter.release("A@example.com", 0);
+        limiter.release("a@example.com", 0);
+        limiter.release("a@example.com", 0);
+
+        assertTrue(limiter.tryAcquire("a@example.com", 0));
+        assertTrue(limiter.tryAcquire("a@example.com", 0));
+        assertFalse(limiter.tryAcquire("a@example.com", 0));
+    }
+
+    @Test
+    void tryAcquire_zeroCapacity_neverLimits() {
+        RecipientRateLimiter limiter = new RecipientRateLimiter(0, Duration.ofHours(1));
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(limiter.tryAcquire("a@example.com", 0));
+        }
+        assertEquals(0, limiter.tracked());
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.notificationservice.service;
+
+import com.example.notificationservice.exception.SmtpUnavailableException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailSendException;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SmtpCircuitBreakerTest {
+
+    private final SmtpCircuitBreaker breaker = new SmtpCircuitBreaker(2, Duration.ofMillis(200), null);
+    private final AtomicInteger calls = new AtomicInteger();
+
+    @AfterEach
+    void tearDown() {
+        breaker.shutdown();
+    }
+
+    @Test
+    void run_opensAfterConsecutiveFailuresAndFailsFast() {
+        fail(new MailSendException("connection refused"));
+        fail(new MailSendException("connection refused"));
+
+        assertEquals(SmtpCircuitBreaker.State.OPEN, breaker.getState());
+        assertThrows(SmtpUnavailableException.class, () -> breaker.run(calls::incrementAndGet));
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void run_halfOpenSuccess_closesCircuit() {
+        fail(new MailSendException("connection refused"));
+        fail(new MailSendException("connection refused"));
+
+        await().atMost(Duration.ofSeconds(2)).until(() -> breaker.getState() == SmtpCircuitBreaker.State.HALF_OPEN);
+        breaker.run(calls::incrementAndGet);
+
+        assertEquals(SmtpCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    @Test
+    void run_messageErrors_doNotOpenCircuit() {
+        fail(new MailParseException("bad address"));
+        fail(new MailParseException("bad address"));
+
+        assertEquals(SmtpCircuitBreaker.State.CLOSED, breaker.getState());
+    }
+
+    private void fail(RuntimeException error) {
+        assertThrows(error.getClass(), () -> breaker.run(() -> {
+            calls.incrementAndGet();
+            throw error;
+        }));
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.notificationservice.template;
+
+import com.example.events.UserEventDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class NotificationTemplateTest {
+
+    @Test
+    void render_fillsPlaceholders() {
+        NotificationTemplate template = NotificationTemplate.compile("Hi {name} <{email}>!");
+
+        assertEquals("Hi John <john@example.com>!", template.render(event("John", "john@example.com")));
+    }
+
+    @Test
+    void renderTo_appendsToGivenBuffer() {
+        NotificationTemplate template = NotificationTemplate.compile("{name}!");
+        StringBuilder out = new StringBuilder("> ");
+
+        template.renderTo(event("John", "john@example.com"), out);
+        template.renderTo(event("Jane", "jane@example.com"), out);
+
+        assertEquals("> John!Jane!", out.toString());
+    }
+
+    @Test
+    void render_missingName_fallsBackToEmail() {
+        NotificationTemplate template = NotificationTemplate.compile("Hi {name}");
+
+        assertEquals("Hi john@example.com", template.render(event(null, "john@example.com")));
+    }
+
+    @Test
+    void compile_unknownPlaceholder_failsFast() {
+        assertThrows(IllegalArgumentException.class, () -> NotificationTemplate.compile("Hi {phone}"));
+        assertThrows(IllegalArgumentException.class, () -> NotificationTemplate.compile("Hi {name"));
+    }
+
+    @Test
+    void templates_selectLanguageAndFallBackToDefault() {
+        NotificationTemplates templates = new NotificationTemplates(List.of("ru", "en"), "ru");
+        UserEventDto event = event("John", "john@example.com");
+        event.setOperation("DELETE");
+
+        event.setLocale("en_US");
+        assertEquals("Account notification", templates.render(event).subject());
+
+        event.setLocale("de");
+        assertTrue(templates.render(event).body().contains("Ваш аккаунт был удалён"));
+
+        event.setOperation("UNKNOWN");
+        assertNull(templates.render(event));
+    }
+
+    private UserEventDto event(String name, String email) {
+        UserEventDto event = new UserEventDto();
+        event.setName(name);
+        event.setEmail(email);
+        return event;
+    }
+}
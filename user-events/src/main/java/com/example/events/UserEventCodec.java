@@ -0,0 +1,210 @@
+package com.example.events;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+/**
+ * Binary layout of a user event:
+ * <pre>
+ * byte    magic, always 0x00 (a JSON document never starts with it)
+ * byte    schema version
+ * byte    presence bits, one per field below in that order
+ * varlong userId, zig-zag encoded
+ * string  operation, email, name, locale - each a varint byte length followed by UTF-8
+ * 16 bytes eventId, most then least significant half, big-endian (since version 2)
+ * varlong timestamp, epoch millis (since version 2)
+ * </pre>
+ * A new schema version may only append fields, so readers skip trailing bytes they do not know about and older
+ * consumers keep working while producers are upgraded.
+ */
+public final class UserEventCodec {
+
+    public static final byte MAGIC = 0x00;
+    public static final byte VERSION = 2;
+
+    private static final int USER_ID = 1;
+    private static final int OPERATION = 1 << 1;
+    private static final int EMAIL = 1 << 2;
+    private static final int NAME = 1 << 3;
+    private static final int LOCALE = 1 << 4;
+    private static final int EVENT_ID = 1 << 5;
+    private static final int TIMESTAMP = 1 << 6;
+
+    private UserEventCodec() {
+    }
+
+    public static boolean isBinary(byte[] data) {
+        return data.length > 0 && data[0] == MAGIC;
+    }
+
+    public static byte[] encode(UserEventDto event) {
+        byte[] operation = utf8(event.getOperation());
+        byte[] email = utf8(event.getEmail());
+        byte[] name = utf8(event.getName());
+        byte[] locale = utf8(event.getLocale());
+
+        int presence = 0;
+        int size = 3;
+        long userId = 0;
+        if (event.getUserId() != null) {
+            presence |= USER_ID;
+            userId = zigZag(event.getUserId());
+            size += varLongSize(userId);
+        }
+        presence |= flag(operation, OPERATION) | flag(email, EMAIL) | flag(name, NAME) | flag(locale, LOCALE);
+        size += stringSize(operation) + stringSize(email) + stringSize(name) + stringSize(locale);
+        if (event.getEventId() != null) {
+            presence |= EVENT_ID;
+            size += 16;
+        }
+        if (event.getTimestamp() != null) {
+            presence |= TIMESTAMP;
+            size += varLongSize(event.getTimestamp());
+        }
+
+        byte[] out = new byte[size];
+        out[0] = MAGIC;
+        out[1] = VERSION;
+        out[2] = (byte) presence;
+        int pos = 3;
+        if ((presence & USER_ID) != 0) {
+            pos = writeVarLong(out, pos, userId);
+        }
+        pos = writeString(out, pos, operation);
+        pos = writeString(out, pos, email);
+        pos = writeString(out, pos, name);
+        pos = writeString(out, pos, locale);
+        if ((presence & EVENT_ID) != 0) {
+            pos = writeLong(out, pos, event.getEventId().getMostSignificantBits());
+            pos = writeLong(out, pos, event.getEventId().getLeastSignificantBits());
+        }
+        if ((presence & TIMESTAMP) != 0) {
+            writeVarLong(out, pos, event.getTimestamp());
+        }
+        return out;
+    }
+
+    public static UserEventDto decode(byte[] data) {
+        if (data.length < 3 || data[0] != MAGIC) {
+            throw new IllegalArgumentException("Not a binary user event");
+        }
+        if (data[1] < 1) {
+            throw new IllegalArgumentException("Unsupported user event schema version " + data[1]);
+        }
+        Reader reader = new Reader(data, 3);
+        int presence = data[2];
+        UserEventDto event = new UserEventDto();
+        if ((presence & USER_ID) != 0) {
+            long zigZag = reader.readVarLong();
+            event.setUserId((zigZag >>> 1) ^ -(zigZag & 1));
+        }
+        event.setOperation((presence & OPERATION) != 0 ? reader.readString() : null);
+        event.setEmail((presence & EMAIL) != 0 ? reader.readString() : null);
+        event.setName((presence & NAME) != 0 ? reader.readString() : null);
+        event.setLocale((presence & LOCALE) != 0 ? reader.readString() : null);
+        if ((presence & EVENT_ID) != 0) {
+            event.setEventId(new UUID(reader.readLong(), reader.readLong()));
+        }
+        if ((presence & TIMESTAMP) != 0) {
+            event.setTimestamp(reader.readVarLong());
+        }
+        return event;
+    }
+
+    private static byte[] utf8(String value) {
+        return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+    }
+
+    private static int flag(byte[] value, int bit) {
+        return value != null ? bit : 0;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static int stringSize(byte[] value) {
+        return value != null ? varLongSize(value.length) + value.length : 0;
+    }
+
+    private static int varLongSize(long value) {
+        int size = 1;
+        while ((value & ~0x7FL) != 0) {
+            value >>>= 7;
+            size++;
+        }
+        return size;
+    }
+
+    private static int writeVarLong(byte[] out, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out[pos++] = (byte) value;
+        return pos;
+    }
+
+    private static int writeLong(byte[] out, int pos, long value) {
+        for (int shift = 56; shift >= 0; shift -= 8) {
+            out[pos++] = (byte) (value >>> shift);
+        }
+        return pos;
+    }
+
+    private static int writeString(byte[] out, int pos, byte[] value) {
+        if (value == null) {
+            return pos;
+        }
+        pos = writeVarLong(out, pos, value.length);
+        System.arraycopy(value, 0, out, pos, value.length);
+        return pos + value.length;
+    }
+
+    private static final class Reader {
+
+        private final byte[] data;
+        private int pos;
+
+        Reader(byte[] data, int pos) {
+            this.data = data;
+            this.pos = pos;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                if (pos >= data.length) {
+                    throw new IllegalArgumentException("Truncated user event");
+                }
+                byte b = data[pos++];
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+            }
+            throw new IllegalArgumentException("Malformed varint in user event");
+        }
+
+        long readLong() {
+            if (data.length - pos < 8) {
+                throw new IllegalArgumentException("Truncated user event");
+            }
+            long value = 0;
+            for (int i = 0; i < 8; i++) {
+                value = (value << 8) | (data[pos++] & 0xFF);
+            }
+            return value;
+        }
+
+        String readString() {
+            long length = readVarLong();
+            if (length > data.length - pos) {
+                throw new IllegalArgumentException("Truncated user event");
+            }
+            String value = new String(data, pos, (int) length, StandardCharsets.UTF_8);
+            pos += (int) length;
+            return value;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.events;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.apache.kafka.common.errors.SerializationException;
+import org.apache.kafka.common.serialization.Deserializer;
+
+import java.io.IOException;
+
+/**
+ * Reads user events written by {@link UserEventSerializer}. Records still on the topic from before the switch,
+ * produced as JSON by Spring's {@code JsonSerializer}, are read as JSON; their type headers are ignored.
+ */
+public class UserEventDeserializer implements Deserializer<UserEventDto> {
+
+    private static final ObjectReader JSON_READER = new ObjectMapper()
+            .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+            .readerFor(UserEventDto.class);
+
+    @Override
+    public UserEventDto deserialize(String topic, byte[] data) {
+        if (data == null) {
+            return null;
+        }
+        try {
+            return UserEventCodec.isBinary(data) ? UserEventCodec.decode(data) : JSON_READER.readValue(data);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new SerializationException("Cannot read user event from topic " + topic, e);
+        }
+    }
+}
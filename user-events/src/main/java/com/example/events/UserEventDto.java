@@ -0,0 +1,21 @@
+package com.example.events;
+
+import lombok.Data;
+
+import java.util.UUID;
+
+@Data
+public class UserEventDto {
+
+    // Assigned once when the event is recorded, so redeliveries of the same event carry the same id
+    private UUID eventId;
+    // Epoch millis at which the event was recorded
+    private Long timestamp;
+
+    private String operation;
+    private Long userId;
+    private String email;
+    private String name;
+    private String locale;
+
+}
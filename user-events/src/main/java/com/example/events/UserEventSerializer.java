@@ -0,0 +1,14 @@
+package com.example.events;
+
+import org.apache.kafka.common.serialization.Serializer;
+
+/**
+ * Writes user events in the {@link UserEventCodec} binary format. No type headers are added.
+ */
+public class UserEventSerializer implements Serializer<UserEventDto> {
+
+    @Override
+    public byte[] serialize(String topic, UserEventDto data) {
+        return data != null ? UserEventCodec.encode(data) : null;
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.events;
+
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserEventCodecTest {
+
+    private final UserEventSerializer serializer = new UserEventSerializer();
+    private final UserEventDeserializer deserializer = new UserEventDeserializer();
+
+    @Test
+    void roundTrip_keepsAllFields() {
+        UserEventDto event = event();
+        event.setLocale("en-US");
+        event.setEventId(UUID.randomUUID());
+        event.setTimestamp(1_760_000_000_000L);
+
+        byte[] bytes = serializer.serialize("user-events", event);
+
+        assertEquals(UserEventCodec.MAGIC, bytes[0]);
+        assertEquals(UserEventCodec.VERSION, bytes[1]);
+        assertEquals(event, deserializer.deserialize("user-events", bytes));
+    }
+
+    @Test
+    void roundTrip_keepsNullsAndNegativeIds() {
+        UserEventDto event = new UserEventDto();
+        event.setOperation("DELETE");
+        event.setUserId(-5L);
+
+        assertEquals(event, UserEventCodec.decode(UserEventCodec.encode(event)));
+        assertEquals(new UserEventDto(), UserEventCodec.decode(UserEventCodec.encode(new UserEventDto())));
+    }
+
+    @Test
+    void decode_readsVersion1Records() {
+        byte[] v1 = UserEventCodec.encode(event());
+        v1[1] = 1;
+
+        UserEventDto event = UserEventCodec.decode(v1);
+
+        assertEquals(event(), event);
+        assertNull(event.getEventId());
+    }
+
+    @Test
+    void deserialize_readsLegacyJson() {
+        byte[] json = "{\"operation\":\"CREATE\",\"userId\":42,\"email\":\"иван@example.com\",\"name\":\"Иван\",\"extra\":1}"
+                .getBytes(StandardCharsets.UTF_8);
+
+        UserEventDto event = deserializer.deserialize("user-events", json);
+
+        assertEquals("CREATE", event.getOperation());
+        assertEquals(42L, event.getUserId());
+        assertEquals("иван@example.com", event.getEmail());
+    }
+
+    @Test
+    void decode_ignoresFieldsAppendedByNewerVersions() {
+        byte[] current = UserEventCodec.encode(event());
+        byte[] newer = Arrays.copyOf(current, current.length + 3);
+        newer[1] = UserEventCodec.VERSION + 1;
+
+        assertEquals(event(), UserEventCodec.decode(newer));
+    }
+
+    @Test
+    void deserialize_truncatedRecord_throwsSerializationException() {
+        byte[] bytes = UserEventCodec.encode(event());
+
+        assertThrows(SerializationException.class,
+                () -> deserializer.deserialize("user-events", Arrays.copyOf(bytes, bytes.length - 2)));
+    }
+
+    private UserEventDto event() {
+        UserEventDto event = new UserEventDto();
+        event.setOperation("CREATE");
+        event.setUserId(1234567L);
+        event.setEmail("иван@example.com");
+        event.setName("Иван Петров");
+        return event;
+    }
+}
@@ -0,0 +1,23 @@
+package com.example.userservice.config;
+
+import com.example.userservice.service.UserEventPublisher;
+import org.apache.kafka.clients.admin.NewTopic;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.kafka.config.TopicBuilder;
+
+@Configuration
+public class KafkaTopicConfig {
+
+    // Records are keyed by user id: consumers scale out to one per partition and each user's events stay ordered.
+    // Kafka can add partitions to an existing topic but not remove them, and adding remaps keys to partitions
+    @Bean
+    public NewTopic userEventsTopic(@Value("${user.events.partitions:6}") int partitions,
+                                    @Value("${user.events.replication-factor:1}") short replicationFactor) {
+        return TopicBuilder.name(UserEventPublisher.USER_TOPIC)
+                .partitions(partitions)
+                .replicas(replicationFactor)
+                .build();
+    }
+}
@@ -0,0 +1,62 @@
+package com.example.userservice.config;
+
+import com.example.events.UserEventDto;
+import com.zaxxer.hikari.HikariDataSource;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
+import org.springframework.boot.autoconfigure.sql.init.SqlDataSourceScriptDatabaseInitializer;
+import org.springframework.boot.autoconfigure.sql.init.SqlInitializationProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.embedded.netty.NettyReactiveWebServerFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.core.reactive.ReactiveKafkaProducerTemplate;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.kafka.sender.SenderOptions;
+
+import javax.sql.DataSource;
+
+/**
+ * Infrastructure of the {@code reactive} profile. JPA keeps serving the outbox relay, so the R2DBC transaction
+ * manager is not registered as a bean and the JPA one stays the only
+ * {@link org.springframework.transaction.TransactionManager}.
+ */
+@Configuration
+@Profile("reactive")
+@EnableConfigurationProperties({DataSourceProperties.class, SqlInitializationProperties.class})
+public class ReactiveConfig {
+
+    // Boot skips the JDBC DataSource once an R2DBC ConnectionFactory exists, and would run spring.sql.init
+    // scripts over R2DBC before Hibernate has created the tables; declare both for JDBC as without the profile
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    @Bean
+    public SqlDataSourceScriptDatabaseInitializer dataSourceScriptInitializer(DataSource dataSource,
+                                                                             SqlInitializationProperties properties) {
+        return new SqlDataSourceScriptDatabaseInitializer(dataSource, properties);
+    }
+
+    // Tomcat is on the classpath for the MVC stack and would otherwise be picked for WebFlux as well
+    @Bean
+    public NettyReactiveWebServerFactory nettyReactiveWebServerFactory() {
+        return new NettyReactiveWebServerFactory();
+    }
+
+    @Bean
+    public TransactionalOperator reactiveTransactionalOperator(ConnectionFactory connectionFactory) {
+        return TransactionalOperator.create(new R2dbcTransactionManager(connectionFactory));
+    }
+
+    @Bean
+    public ReactiveKafkaProducerTemplate<String, UserEventDto> reactiveKafkaProducerTemplate(KafkaProperties properties) {
+        return new ReactiveKafkaProducerTemplate<>(SenderOptions.create(properties.buildProducerProperties(null)));
+    }
+}
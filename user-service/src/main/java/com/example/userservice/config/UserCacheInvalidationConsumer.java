@@ -0,0 +1,30 @@
+package com.example.userservice.config;
+
+import com.example.events.UserEventDto;
+import com.example.userservice.service.UserService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.stereotype.Component;
+
+/**
+ * Every replica consumes user-events in its own consumer group, so a change made on one node
+ * evicts the cached user on all of them.
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(name = "user.cache.invalidation.enabled", havingValue = "true")
+public class UserCacheInvalidationConsumer {
+
+    private final CacheManager cacheManager;
+
+    @KafkaListener(topics = "user-events", groupId = "${spring.application.name}-cache-${random.uuid}")
+    public void handleUserEvent(UserEventDto event) {
+        Cache cache = cacheManager.getCache(UserService.USER_CACHE);
+        if (cache != null && event.getUserId() != null) {
+            cache.evict(event.getUserId());
+        }
+    }
+}
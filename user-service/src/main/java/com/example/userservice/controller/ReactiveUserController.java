@@ -0,0 +1,73 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.dto.UserCreateDto;
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.dto.UserUpdateDto;
+import com.example.userservice.service.ReactiveUserService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * WebFlux variant of {@link UserController} served by the {@code reactive} profile. Responses are plain JSON
+ * without hypermedia links. It only covers list, stream, get, create, update and delete: {@code PATCH /users/{id}},
+ * {@code GET /users/search}, {@code POST /users/bulk} and {@code DELETE /users?ids=} exist only in the default
+ * profile, since {@link UserController} is off under this one.
+ */
+@RestController
+@RequestMapping("/users")
+@Profile("reactive")
+@RequiredArgsConstructor
+@Tag(name = "Users", description = "Operations on user accounts")
+public class ReactiveUserController {
+
+    private final ReactiveUserService userService;
+
+    @GetMapping
+    @Operation(summary = "Get a page of users ordered by ID, starting after the given ID")
+    public Flux<UserDto> getAllUsers(@RequestParam(required = false) Long after,
+                                     @RequestParam(required = false) Integer size) {
+        return userService.findPage(after, UserController.pageSize(size));
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all users as newline-delimited JSON, reading rows as fast as the client consumes them")
+    public Flux<UserDto> streamAllUsers() {
+        return userService.streamAll();
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Get user by ID; the ETag is the user's version, If-None-Match with it returns 304")
+    public Mono<ResponseEntity<UserDto>> getUserById(@PathVariable Long id) {
+        // WebFlux answers a matching If-None-Match with 304 itself, before the body is encoded
+        return userService.findById(id)
+                .map(user -> ResponseEntity.ok().eTag(UserController.etag(user.getVersion())).body(user));
+    }
+
+    @PostMapping
+    @Operation(summary = "Create new user")
+    public Mono<ResponseEntity<UserDto>> createUser(@Valid @RequestBody UserCreateDto createDto) {
+        return userService.create(createDto)
+                .map(user -> ResponseEntity.status(HttpStatus.CREATED).body(user));
+    }
+
+    @PutMapping("/{id}")
+    @Operation(summary = "Update user by ID")
+    public Mono<UserDto> updateUser(@PathVariable Long id, @Valid @RequestBody UserUpdateDto updateDto) {
+        return userService.update(id, updateDto);
+    }
+
+    @DeleteMapping("/{id}")
+    @Operation(summary = "Delete user by ID")
+    public Mono<ResponseEntity<Void>> deleteUser(@PathVariable Long id) {
+        return userService.delete(id).thenReturn(ResponseEntity.noContent().build());
+    }
+}
@@ -1,81 +1,170 @@
 package com.example.userservice.controller;
 
+import com.example.userservice.dto.BulkDeleteResultDto;
+import com.example.userservice.dto.BulkImportResultDto;
 import com.example.userservice.dto.UserCreateDto;
 import com.example.userservice.dto.UserDto;
+import com.example.userservice.dto.UserSearchDto;
 import com.example.userservice.dto.UserUpdateDto;
+import com.example.userservice.exception.PreconditionFailedException;
+import com.example.userservice.service.UserImportService;
 import com.example.userservice.service.UserService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
 import org.springframework.hateoas.CollectionModel;
 import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.http.ETag;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Optional;
 
 import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.*;
 
 @RestController
 @RequestMapping("/users")
+@Profile("!reactive")
 @RequiredArgsConstructor
 @Tag(name = "Users", description = "Operations on user accounts")
 public class UserController {
 
+    static final int DEFAULT_PAGE_SIZE = 50;
+    static final int MAX_PAGE_SIZE = 1000;
+
     private final UserService userService;
+    private final UserImportService userImportService;
+    private final UserModelAssembler userModelAssembler;
+    private final ObjectMapper objectMapper;
 
     @GetMapping
-    @Operation(summary = "Get all users")
-    public CollectionModel<EntityModel<UserDto>> getAllUsers() {
-        List<EntityModel<UserDto>> users = userService.findAll().stream()
-                .map(user -> EntityModel.of(user,
-                        linkTo(methodOn(UserController.class).getUserById(user.getId())).withSelfRel(),
-                        linkTo(methodOn(UserController.class).updateUser(user.getId(), null)).withRel("update"),
-                        linkTo(methodOn(UserController.class).deleteUser(user.getId())).withRel("delete")
-                ))
-                .collect(Collectors.toList());
-
-        return CollectionModel.of(users,
-                linkTo(methodOn(UserController.class).getAllUsers()).withSelfRel(),
-                linkTo(methodOn(UserController.class).createUser(null)).withRel("create")
-        );
+    @Operation(summary = "Get a page of users ordered by ID, starting after the given ID; "
+            + "compact=true omits per-user links")
+    public ResponseEntity<CollectionModel<EntityModel<UserDto>>> getAllUsers(@RequestParam(required = false) Long after,
+                                                                             @RequestParam(required = false) Integer size,
+                                                                             @RequestParam(required = false) Boolean compact,
+                                                                             WebRequest request) {
+        int pageSize = pageSize(size);
+        List<UserDto> page = userService.findPage(after, pageSize);
+        String etag = pageEtag(page);
+        if (request.checkNotModified(etag)) {
+            return null;
+        }
+        List<EntityModel<UserDto>> users;
+        if (Boolean.TRUE.equals(compact)) {
+            users = page.stream().map(userModelAssembler::toCompactModel).toList();
+        } else {
+            String usersHref = userModelAssembler.usersHref();
+            users = page.stream().map(user -> userModelAssembler.toItemModel(user, usersHref)).toList();
+        }
+
+        List<Link> links = new ArrayList<>();
+        links.add(linkTo(methodOn(UserController.class).getAllUsers(after, size, compact, null)).withSelfRel().expand());
+        links.add(linkTo(methodOn(UserController.class).createUser(null)).withRel("create"));
+        if (page.size() == pageSize) {
+            Long lastId = page.get(page.size() - 1).getId();
+            links.add(linkTo(methodOn(UserController.class).getAllUsers(lastId, size, compact, null)).withRel(IanaLinkRelations.NEXT).expand());
+        }
+        return ResponseEntity.ok().eTag(etag).body(CollectionModel.of(users, links));
+    }
+
+    @GetMapping("/search")
+    @Operation(summary = "Search users by email prefix, case-insensitive name substring and age range, ordered by ID")
+    public CollectionModel<EntityModel<UserDto>> searchUsers(@Valid UserSearchDto criteria,
+                                                             @RequestParam(required = false) Long after,
+                                                             @RequestParam(required = false) Integer size) {
+        int pageSize = pageSize(size);
+        List<UserDto> page = userService.search(criteria, after, pageSize);
+        String usersHref = userModelAssembler.usersHref();
+        List<EntityModel<UserDto>> users = page.stream()
+                .map(user -> userModelAssembler.toItemModel(user, usersHref))
+                .toList();
+
+        List<Link> links = new ArrayList<>();
+        links.add(Link.of(searchHref(criteria, after, size)));
+        if (page.size() == pageSize) {
+            Long lastId = page.get(page.size() - 1).getId();
+            links.add(Link.of(searchHref(criteria, lastId, size), IanaLinkRelations.NEXT));
+        }
+        return CollectionModel.of(users, links);
+    }
+
+    @GetMapping(value = "/stream", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Stream all users as newline-delimited JSON")
+    public ResponseEntity<StreamingResponseBody> streamAllUsers() {
+        ObjectWriter writer = objectMapper.writerFor(UserDto.class);
+        StreamingResponseBody body = out -> userService.streamAll(user -> {
+            try {
+                out.write(writer.writeValueAsBytes(user));
+                out.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
     }
 
     @GetMapping("/{id}")
-    @Operation(summary = "Get user by ID")
-    public EntityModel<UserDto> getUserById(@PathVariable Long id) {
+    @Operation(summary = "Get user by ID; the ETag is the user's version, If-None-Match with it returns 304")
+    public ResponseEntity<EntityModel<UserDto>> getUserById(@PathVariable Long id, WebRequest request) {
         UserDto user = userService.findById(id);
-        return EntityModel.of(user,
-                linkTo(methodOn(UserController.class).getUserById(id)).withSelfRel(),
-                linkTo(methodOn(UserController.class).getAllUsers()).withRel("users"),
-                linkTo(methodOn(UserController.class).updateUser(id, null)).withRel("update"),
-                linkTo(methodOn(UserController.class).deleteUser(id)).withRel("delete")
-        );
+        String etag = etag(user.getVersion());
+        if (etag != null && request.checkNotModified(etag)) {
+            return null;
+        }
+        return ResponseEntity.ok().eTag(etag).body(userModelAssembler.toDetailModel(user));
     }
 
     @PostMapping
     @Operation(summary = "Create new user")
     public ResponseEntity<EntityModel<UserDto>> createUser(@Valid @RequestBody UserCreateDto createDto) {
-        UserDto created = userService.create(createDto);
-        EntityModel<UserDto> model = EntityModel.of(created,
-                linkTo(methodOn(UserController.class).getUserById(created.getId())).withSelfRel(),
-                linkTo(methodOn(UserController.class).getAllUsers()).withRel("users")
-        );
+        EntityModel<UserDto> model = userModelAssembler.toCreatedModel(userService.create(createDto));
         return ResponseEntity.status(HttpStatus.CREATED).body(model);
     }
 
+    @PostMapping(value = "/bulk", consumes = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(summary = "Import users from newline-delimited JSON")
+    public BulkImportResultDto importUsersNdjson(BufferedReader body) throws IOException {
+        return userImportService.importUsers(body, UserImportService.Format.NDJSON);
+    }
+
+    @PostMapping(value = "/bulk", consumes = "text/csv")
+    @Operation(summary = "Import users from CSV with a name,email,age header")
+    public BulkImportResultDto importUsersCsv(BufferedReader body) throws IOException {
+        return userImportService.importUsers(body, UserImportService.Format.CSV);
+    }
+
     @PutMapping("/{id}")
     @Operation(summary = "Update user by ID")
     public EntityModel<UserDto> updateUser(@PathVariable Long id, @Valid @RequestBody UserUpdateDto updateDto) {
-        UserDto updated = userService.update(id, updateDto);
-        return EntityModel.of(updated,
-                linkTo(methodOn(UserController.class).getUserById(id)).withSelfRel(),
-                linkTo(methodOn(UserController.class).getAllUsers()).withRel("users"),
-                linkTo(methodOn(UserController.class).deleteUser(id)).withRel("delete")
-        );
+        return userModelAssembler.toUpdatedModel(userService.update(id, updateDto));
+    }
+
+    @PatchMapping("/{id}")
+    @Operation(summary = "Update only the provided fields of a user; If-Match makes the update conditional on the version")
+    public EntityModel<UserDto> patchUser(@PathVariable Long id,
+                                          @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+                                          @Valid @RequestBody UserUpdateDto patchDto) {
+        return userModelAssembler.toUpdatedModel(userService.patch(id, patchDto, parseVersions(ifMatch)));
     }
 
     @DeleteMapping("/{id}")
@@ -84,4 +173,74 @@ public class UserController {
         userService.delete(id);
         return ResponseEntity.noContent().build();
     }
+
+    @DeleteMapping
+    @Operation(summary = "Delete all users with the given IDs in one statement")
+    public BulkDeleteResultDto deleteUsers(@RequestParam List<Long> ids) {
+        return new BulkDeleteResultDto(ids.size(), userService.deleteAll(ids));
+    }
+
+    private static String searchHref(UserSearchDto criteria, Long after, Integer size) {
+        return ServletUriComponentsBuilder.fromCurrentRequestUri()
+                .queryParamIfPresent("email", Optional.ofNullable(criteria.getEmail()))
+                .queryParamIfPresent("name", Optional.ofNullable(criteria.getName()))
+                .queryParamIfPresent("minAge", Optional.ofNullable(criteria.getMinAge()))
+                .queryParamIfPresent("maxAge", Optional.ofNullable(criteria.getMaxAge()))
+                .queryParamIfPresent("after", Optional.ofNullable(after))
+                .queryParamIfPresent("size", Optional.ofNullable(size))
+                .encode()
+                .toUriString();
+    }
+
+    /**
+     * Strong ETag of a single user. Every change bumps the version, and If-Match on PATCH accepts the same value.
+     */
+    static String etag(Long version) {
+        return version != null ? "\"" + version + "\"" : null;
+    }
+
+    /**
+     * ETag of a page, hashed from the id and version of each user on it: any update, insert or delete within the
+     * page changes it, without hashing the serialized body. Weak, because Tomcat does not gzip responses with a
+     * strong ETag.
+     */
+    private static String pageEtag(List<UserDto> page) {
+        long hash = page.size();
+        for (UserDto user : page) {
+            hash = (hash ^ user.getId()) * 0x9E3779B97F4A7C15L;
+            hash = (hash ^ (user.getVersion() != null ? user.getVersion() : -1)) * 0x9E3779B97F4A7C15L;
+        }
+        return "W/\"" + Long.toHexString(hash) + "\"";
+    }
+
+    static int pageSize(Integer size) {
+        return size != null ? Math.min(Math.max(size, 1), MAX_PAGE_SIZE) : DEFAULT_PAGE_SIZE;
+    }
+
+    /**
+     * User versions listed in If-Match, or null for none or {@code *}. If-Match uses the strong comparison, so weak
+     * tags never match; a header without a single strong version cannot match either.
+     */
+    private static List<Long> parseVersions(String ifMatch) {
+        if (ifMatch == null) {
+            return null;
+        }
+        List<Long> versions = new ArrayList<>();
+        for (ETag etag : ETag.parse(ifMatch)) {
+            if (etag.isWildcard()) {
+                return null;
+            }
+            if (!etag.weak()) {
+                try {
+                    versions.add(Long.valueOf(etag.tag()));
+                } catch (NumberFormatException e) {
+                    // Not one of ours, so it matches no version
+                }
+            }
+        }
+        if (versions.isEmpty()) {
+            throw new PreconditionFailedException("If-Match does not carry a strong user version: " + ifMatch);
+        }
+        return versions;
+    }
 }
@@ -0,0 +1,71 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.dto.UserDto;
+import org.springframework.hateoas.EntityModel;
+import org.springframework.hateoas.IanaLinkRelations;
+import org.springframework.hateoas.Link;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static org.springframework.hateoas.server.mvc.WebMvcLinkBuilder.linkTo;
+
+/**
+ * Builds user links from a base href resolved once per response instead of
+ * proxying {@link UserController} with {@code methodOn} for every link.
+ * Every per-user endpoint is mapped to {@code /users/{id}}, so each link is a
+ * single string concatenation.
+ */
+@Component
+public class UserModelAssembler {
+
+    static final String USERS_REL = "users";
+    static final String UPDATE_REL = "update";
+    static final String DELETE_REL = "delete";
+
+    public String usersHref() {
+        return linkTo(UserController.class).toUri().toString();
+    }
+
+    public EntityModel<UserDto> toItemModel(UserDto user, String usersHref) {
+        String userHref = userHref(usersHref, user);
+        return EntityModel.of(user, List.of(
+                Link.of(userHref, IanaLinkRelations.SELF),
+                Link.of(userHref, UPDATE_REL),
+                Link.of(userHref, DELETE_REL)));
+    }
+
+    public EntityModel<UserDto> toCompactModel(UserDto user) {
+        return EntityModel.of(user);
+    }
+
+    public EntityModel<UserDto> toDetailModel(UserDto user) {
+        String usersHref = usersHref();
+        String userHref = userHref(usersHref, user);
+        return EntityModel.of(user, List.of(
+                Link.of(userHref, IanaLinkRelations.SELF),
+                Link.of(usersHref, USERS_REL),
+                Link.of(userHref, UPDATE_REL),
+                Link.of(userHref, DELETE_REL)));
+    }
+
+    public EntityModel<UserDto> toCreatedModel(UserDto user) {
+        String usersHref = usersHref();
+        return EntityModel.of(user, List.of(
+                Link.of(userHref(usersHref, user), IanaLinkRelations.SELF),
+                Link.of(usersHref, USERS_REL)));
+    }
+
+    public EntityModel<UserDto> toUpdatedModel(UserDto user) {
+        String usersHref = usersHref();
+        String userHref = userHref(usersHref, user);
+        return EntityModel.of(user, List.of(
+                Link.of(userHref, IanaLinkRelations.SELF),
+                Link.of(usersHref, USERS_REL),
+                Link.of(userHref, DELETE_REL)));
+    }
+
+    private static String userHref(String usersHref, UserDto user) {
+        return usersHref + "/" + user.getId();
+    }
+}
@@ -1,15 +1,18 @@
 package com.example.userservice.dto;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import lombok.Data;
 import org.springframework.hateoas.RepresentationModel;
 
 import java.time.LocalDateTime;
 
 @Data
+@JsonIgnoreProperties("links")
 public class UserDto extends RepresentationModel<UserDto> {
     private Long id;
     private String name;
     private String email;
     private Integer age;
     private LocalDateTime createdAt;
+    private Long version;
 }
\ No newline at end of file
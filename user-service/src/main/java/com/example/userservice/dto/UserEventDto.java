@@ -1,11 +0,0 @@
-package com.example.userservice.dto;
-
-import lombok.Data;
-
-@Data
-public class UserEventDto {
-
-    private String operation;
-    private String email;
-
-}
@@ -0,0 +1,19 @@
+package com.example.userservice.dto;
+
+import jakarta.validation.constraints.Min;
+import lombok.Data;
+
+@Data
+public class UserSearchDto {
+
+    private String email;
+
+    private String name;
+
+    @Min(0)
+    private Integer minAge;
+
+    @Min(0)
+    private Integer maxAge;
+
+}
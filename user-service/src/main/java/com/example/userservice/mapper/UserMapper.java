@@ -0,0 +1,40 @@
+package com.example.userservice.mapper;
+
+import com.example.userservice.dto.UserCreateDto;
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.dto.UserUpdateDto;
+import com.example.userservice.model.User;
+import org.springframework.stereotype.Component;
+
+@Component
+public class UserMapper {
+
+    public UserDto toDto(User user) {
+        UserDto dto = new UserDto();
+        dto.setId(user.getId());
+        dto.setName(user.getName());
+        dto.setEmail(user.getEmail());
+        dto.setAge(user.getAge());
+        dto.setCreatedAt(user.getCreatedAt());
+        dto.setVersion(user.getVersion());
+        return dto;
+    }
+
+    public User toEntity(UserCreateDto createDto) {
+        User user = new User();
+        user.setName(createDto.getName());
+        user.setEmail(createDto.getEmail());
+        user.setAge(createDto.getAge());
+        return user;
+    }
+
+    public boolean isEmpty(UserUpdateDto updateDto) {
+        return updateDto.getName() == null && updateDto.getEmail() == null && updateDto.getAge() == null;
+    }
+
+    public void applyUpdate(UserUpdateDto updateDto, User user) {
+        if (updateDto.getName() != null) user.setName(updateDto.getName());
+        if (updateDto.getEmail() != null) user.setEmail(updateDto.getEmail());
+        if (updateDto.getAge() != null) user.setAge(updateDto.getAge());
+    }
+}
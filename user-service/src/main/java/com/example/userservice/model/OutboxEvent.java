@@ -0,0 +1,39 @@
+package com.example.userservice.model;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "outbox_events")
+@Data
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Published as the event id; consumers dedupe redeliveries on it
+    @Column(updatable = false)
+    private UUID eventId = UUID.randomUUID();
+
+    @Column(nullable = false)
+    private String operation;
+
+    private Long userId;
+
+    @Column(nullable = false)
+    private String email;
+
+    private String name;
+
+    @CreationTimestamp
+    @Column(updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime sentAt;
+
+}
@@ -0,0 +1,18 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.model.OutboxEvent;
+
+import java.util.List;
+
+public interface OutboxEventRepositoryCustom {
+
+    void insertAll(List<OutboxEvent> events);
+
+    /**
+     * Runs {@code relay} while holding a PostgreSQL session-level advisory lock on the outbox, so only one instance
+     * relays at a time. The lock is taken outside any transaction and released when {@code relay} returns.
+     *
+     * @return {@code false} without running {@code relay} if another instance holds the lock
+     */
+    boolean relayExclusively(Runnable relay);
+}
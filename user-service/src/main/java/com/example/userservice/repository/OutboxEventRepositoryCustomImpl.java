@@ -0,0 +1,79 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.model.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@RequiredArgsConstructor
+public class OutboxEventRepositoryCustomImpl implements OutboxEventRepositoryCustom {
+
+    private static final String INSERT_EVENT =
+            "INSERT INTO outbox_events (event_id, operation, user_id, email, name, created_at) VALUES (?, ?, ?, ?, ?, ?)";
+    private static final String TRY_LOCK = "SELECT pg_try_advisory_lock(?)";
+    private static final String UNLOCK = "SELECT pg_advisory_unlock(?)";
+    private static final long RELAY_LOCK = "outbox_events".hashCode();
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<OutboxEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_EVENT, events, events.size(), (ps, event) -> {
+            ps.setObject(1, event.getEventId());
+            ps.setString(2, event.getOperation());
+            if (event.getUserId() != null) {
+                ps.setLong(3, event.getUserId());
+            } else {
+                ps.setNull(3, Types.BIGINT);
+            }
+            ps.setString(4, event.getEmail());
+            ps.setString(5, event.getName());
+            ps.setTimestamp(6, now);
+        });
+    }
+
+    @Override
+    public boolean relayExclusively(Runnable relay) {
+        // The connection only carries the lock; the relay's own reads and writes use connections of their own
+        Boolean relayed = jdbcTemplate.execute((ConnectionCallback<Boolean>) con -> {
+            if (!advisoryLock(con, TRY_LOCK)) {
+                return false;
+            }
+            try {
+                relay.run();
+            } finally {
+                advisoryLock(con, UNLOCK);
+            }
+            return true;
+        });
+        return Boolean.TRUE.equals(relayed);
+    }
+
+    private static boolean advisoryLock(Connection con, String sql) throws SQLException {
+        boolean result;
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setLong(1, RELAY_LOCK);
+            try (ResultSet rs = ps.executeQuery()) {
+                result = rs.next() && rs.getBoolean(1);
+            }
+        }
+        // Without auto-commit the SELECT opened a transaction; the session lock outlives its commit
+        if (!con.getAutoCommit()) {
+            con.commit();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.model.OutboxEvent;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveOutboxEventRepository {
+
+    private final DatabaseClient databaseClient;
+
+    public Mono<OutboxEvent> insert(OutboxEvent event) {
+        event.setCreatedAt(LocalDateTime.now());
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(
+                        "INSERT INTO outbox_events (event_id, operation, user_id, email, name, created_at) "
+                                + "VALUES (:eventId, :operation, :userId, :email, :name, :createdAt) RETURNING id")
+                .bind("eventId", event.getEventId())
+                .bind("operation", event.getOperation())
+                .bind("userId", event.getUserId())
+                .bind("email", event.getEmail())
+                .bind("createdAt", event.getCreatedAt());
+        spec = event.getName() != null ? spec.bind("name", event.getName()) : spec.bindNull("name", String.class);
+        return spec.map(row -> row.get("id", Long.class))
+                .one()
+                .map(id -> {
+                    event.setId(id);
+                    return event;
+                });
+    }
+
+    public Mono<Boolean> hasUnsentBefore(Long userId, Long id) {
+        return databaseClient.sql("SELECT EXISTS (SELECT 1 FROM outbox_events "
+                        + "WHERE user_id = :userId AND id < :id AND sent_at IS NULL) AS unsent")
+                .bind("userId", userId)
+                .bind("id", id)
+                .map(row -> row.get("unsent", Boolean.class))
+                .one();
+    }
+
+    public Mono<Long> markSent(Long id) {
+        return databaseClient.sql("UPDATE outbox_events SET sent_at = :sentAt WHERE id = :id AND sent_at IS NULL")
+                .bind("sentAt", LocalDateTime.now())
+                .bind("id", id)
+                .fetch()
+                .rowsUpdated();
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.dto.UserUpdateDto;
+import com.example.userservice.model.User;
+import io.r2dbc.spi.Readable;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.Profile;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Repository;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * R2DBC access to the {@code users} table for the {@code reactive} profile, with the same statements as
+ * {@link UserRepository} and {@link UserRepositoryCustomImpl}. PostgreSQL only.
+ */
+@Repository
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveUserRepository {
+
+    private static final String COLUMNS = "id, name, email, age, created_at, version";
+    // Rows fetched per round trip while streaming; the next batch is only requested once the client has
+    // consumed the previous one
+    private static final int STREAM_FETCH_SIZE = 500;
+
+    private final DatabaseClient databaseClient;
+
+    public Flux<User> findPage(long afterId, int size) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM users WHERE id > :after ORDER BY id LIMIT :size")
+                .bind("after", afterId)
+                .bind("size", size)
+                .map(ReactiveUserRepository::mapUser)
+                .all();
+    }
+
+    public Flux<User> streamAllOrderById() {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM users ORDER BY id")
+                .filter(statement -> statement.fetchSize(STREAM_FETCH_SIZE))
+                .map(ReactiveUserRepository::mapUser)
+                .all();
+    }
+
+    public Mono<User> findById(Long id) {
+        return databaseClient.sql("SELECT " + COLUMNS + " FROM users WHERE id = :id")
+                .bind("id", id)
+                .map(ReactiveUserRepository::mapUser)
+                .one();
+    }
+
+    public Mono<User> insert(User user) {
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(
+                        "INSERT INTO users (name, email, age, created_at, version) "
+                                + "VALUES (:name, :email, :age, :createdAt, 0) RETURNING " + COLUMNS)
+                .bind("name", user.getName())
+                .bind("email", user.getEmail())
+                .bind("createdAt", LocalDateTime.now());
+        spec = user.getAge() != null ? spec.bind("age", user.getAge()) : spec.bindNull("age", Integer.class);
+        return spec.map(ReactiveUserRepository::mapUser).one();
+    }
+
+    /**
+     * Applies the non-null fields of {@code update} and bumps the version; empty if there is no such user.
+     */
+    public Mono<User> update(Long id, UserUpdateDto update) {
+        Map<String, Object> values = new LinkedHashMap<>();
+        if (update.getName() != null) {
+            values.put("name", update.getName());
+        }
+        if (update.getEmail() != null) {
+            values.put("email", update.getEmail());
+        }
+        if (update.getAge() != null) {
+            values.put("age", update.getAge());
+        }
+        StringBuilder sql = new StringBuilder("UPDATE users SET ");
+        values.keySet().forEach(column -> sql.append(column).append(" = :").append(column).append(", "));
+        sql.append("version = version + 1 WHERE id = :id RETURNING ").append(COLUMNS);
+
+        DatabaseClient.GenericExecuteSpec spec = databaseClient.sql(sql.toString()).bind("id", id);
+        for (Map.Entry<String, Object> value : values.entrySet()) {
+            spec = spec.bind(value.getKey(), value.getValue());
+        }
+        return spec.map(ReactiveUserRepository::mapUser).one();
+    }
+
+    public Mono<User> deleteReturning(Long id) {
+        return databaseClient.sql("DELETE FROM users WHERE id = :id RETURNING " + COLUMNS)
+                .bind("id", id)
+                .map(ReactiveUserRepository::mapUser)
+                .one();
+    }
+
+    private static User mapUser(Readable row) {
+        User user = new User();
+        user.setId(row.get("id", Long.class));
+        user.setName(row.get("name", String.class));
+        user.setEmail(row.get("email", String.class));
+        user.setAge(row.get("age", Integer.class));
+        user.setCreatedAt(row.get("created_at", LocalDateTime.class));
+        user.setVersion(row.get("version", Long.class));
+        return user;
+    }
+}
@@ -0,0 +1,36 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.dto.UserUpdateDto;
+import com.example.userservice.model.User;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+public interface UserRepositoryCustom {
+
+    /**
+     * Inserts the users with a single JDBC batch and sets the generated ids and creation timestamps on them.
+     */
+    void insertAll(List<User> users);
+
+    /**
+     * Writes the non-null fields of {@code patch} and increments the version with one {@code UPDATE ... RETURNING}.
+     * When {@code expectedVersions} are given the row is only updated if its version is one of them.
+     *
+     * @return the updated row, or empty if no row with that id (and version) exists
+     */
+    Optional<User> patch(Long id, UserUpdateDto patch, Collection<Long> expectedVersions);
+
+    /**
+     * Deletes the user with one {@code DELETE ... RETURNING} and returns its id, name and email.
+     */
+    Optional<User> deleteReturning(Long id);
+
+    /**
+     * Deletes all users with the given ids in one {@code DELETE ... RETURNING} bound to a single array parameter.
+     *
+     * @return id, name and email of the users that existed and were deleted
+     */
+    List<User> deleteAllReturning(Collection<Long> ids);
+}
@@ -0,0 +1,151 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.dto.UserUpdateDto;
+import com.example.userservice.model.User;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.sql.Types;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@RequiredArgsConstructor
+public class UserRepositoryCustomImpl implements UserRepositoryCustom {
+
+    private static final String INSERT_USER = "INSERT INTO users (name, email, age, created_at, version) VALUES (?, ?, ?, ?, 0)";
+    private static final String[] RETURNED_COLUMNS = {"id", "name", "email", "age", "created_at", "version"};
+    private static final String DELETE_USER = "DELETE FROM users WHERE id = ? RETURNING id, name, email";
+    private static final String DELETE_USERS = "DELETE FROM users WHERE id = ANY (?) RETURNING id, name, email";
+    private static final RowMapper<User> DELETED_USER = (rs, rowNum) -> {
+        User user = new User();
+        user.setId(rs.getLong(1));
+        user.setName(rs.getString(2));
+        user.setEmail(rs.getString(3));
+        return user;
+    };
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @Override
+    public void insertAll(List<User> users) {
+        if (users.isEmpty()) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(con -> con.prepareStatement(INSERT_USER, new String[]{"id"}),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        User user = users.get(i);
+                        ps.setString(1, user.getName());
+                        ps.setString(2, user.getEmail());
+                        if (user.getAge() != null) {
+                            ps.setInt(3, user.getAge());
+                        } else {
+                            ps.setNull(3, Types.INTEGER);
+                        }
+                        ps.setTimestamp(4, Timestamp.valueOf(now));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return users.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            user.setId(((Number) keys.get(i).values().iterator().next()).longValue());
+            user.setCreatedAt(now);
+            user.setVersion(0L);
+        }
+    }
+
+    @Override
+    public Optional<User> patch(Long id, UserUpdateDto patch, Collection<Long> expectedVersions) {
+        StringBuilder sql = new StringBuilder("UPDATE users SET ");
+        List<Object> args = new ArrayList<>(5);
+        if (patch.getName() != null) {
+            sql.append("name = ?, ");
+            args.add(patch.getName());
+        }
+        if (patch.getEmail() != null) {
+            sql.append("email = ?, ");
+            args.add(patch.getEmail());
+        }
+        if (patch.getAge() != null) {
+            sql.append("age = ?, ");
+            args.add(patch.getAge());
+        }
+        sql.append("version = version + 1 WHERE id = ?");
+        args.add(id);
+        if (expectedVersions != null) {
+            sql.append(" AND version IN (").append(String.join(", ", Collections.nCopies(expectedVersions.size(), "?")))
+                    .append(")");
+            args.addAll(expectedVersions);
+        }
+
+        // Requesting the columns back as generated keys makes the driver append RETURNING (PostgreSQL)
+        // or read them from the changed row (H2), so the caller gets the new state without a SELECT.
+        PreparedStatementCreator statement = con -> {
+            PreparedStatement ps = con.prepareStatement(sql.toString(), RETURNED_COLUMNS);
+            for (int i = 0; i < args.size(); i++) {
+                ps.setObject(i + 1, args.get(i));
+            }
+            return ps;
+        };
+        return jdbcTemplate.execute(statement, (PreparedStatementCallback<Optional<User>>) ps -> {
+            ps.executeUpdate();
+            try (ResultSet rs = ps.getGeneratedKeys()) {
+                return rs.next() ? Optional.of(mapUser(rs)) : Optional.empty();
+            }
+        });
+    }
+
+    @Override
+    public Optional<User> deleteReturning(Long id) {
+        return jdbcTemplate.query(DELETE_USER, DELETED_USER, id).stream().findFirst();
+    }
+
+    @Override
+    public List<User> deleteAllReturning(Collection<Long> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        return jdbcTemplate.query(con -> {
+            PreparedStatement ps = con.prepareStatement(DELETE_USERS);
+            ps.setArray(1, con.createArrayOf("bigint", ids.toArray()));
+            return ps;
+        }, DELETED_USER);
+    }
+
+    private static User mapUser(ResultSet rs) throws SQLException {
+        User user = new User();
+        user.setId(rs.getLong(1));
+        user.setName(rs.getString(2));
+        user.setEmail(rs.getString(3));
+        user.setAge(rs.getObject(4, Integer.class));
+        Timestamp createdAt = rs.getTimestamp(5);
+        user.setCreatedAt(createdAt != null ? createdAt.toLocalDateTime() : null);
+        user.setVersion(rs.getLong(6));
+        return user;
+    }
+}
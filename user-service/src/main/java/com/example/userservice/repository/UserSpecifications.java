@@ -0,0 +1,60 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.dto.UserSearchDto;
+import com.example.userservice.model.User;
+import jakarta.persistence.criteria.Predicate;
+import org.springframework.data.jpa.domain.Specification;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Search predicates written against the expressions indexed in {@code schema-postgresql.sql}:
+ * {@code lower(email)} for prefix matches, a trigram index on {@code lower(name)} for substrings and
+ * {@code (age, id)} for age ranges.
+ */
+public final class UserSpecifications {
+
+    private static final char LIKE_ESCAPE = '\\';
+
+    private UserSpecifications() {
+    }
+
+    public static Specification<User> matching(UserSearchDto criteria, Long afterId) {
+        return (root, query, cb) -> {
+            List<Predicate> predicates = new ArrayList<>(5);
+            if (afterId != null) {
+                predicates.add(cb.greaterThan(root.get("id"), afterId));
+            }
+            if (hasText(criteria.getEmail())) {
+                predicates.add(cb.like(cb.lower(root.get("email")), escape(criteria.getEmail()) + "%", LIKE_ESCAPE));
+            }
+            if (hasText(criteria.getName())) {
+                predicates.add(cb.like(cb.lower(root.get("name")), "%" + escape(criteria.getName()) + "%", LIKE_ESCAPE));
+            }
+            if (criteria.getMinAge() != null) {
+                predicates.add(cb.greaterThanOrEqualTo(root.get("age"), criteria.getMinAge()));
+            }
+            if (criteria.getMaxAge() != null) {
+                predicates.add(cb.lessThanOrEqualTo(root.get("age"), criteria.getMaxAge()));
+            }
+            return cb.and(predicates.toArray(Predicate[]::new));
+        };
+    }
+
+    private static boolean hasText(String value) {
+        return value != null && !value.isBlank();
+    }
+
+    private static String escape(String value) {
+        StringBuilder escaped = new StringBuilder(value.length() + 4);
+        for (char c : value.trim().toLowerCase(Locale.ROOT).toCharArray()) {
+            if (c == '%' || c == '_' || c == LIKE_ESCAPE) {
+                escaped.append(LIKE_ESCAPE);
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+}
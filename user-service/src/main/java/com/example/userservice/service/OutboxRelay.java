@@ -0,0 +1,118 @@
+package com.example.userservice.service;
+
+import com.example.events.UserEventDto;
+import com.example.userservice.model.OutboxEvent;
+import com.example.userservice.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publishes rows written to the outbox by {@link UserService} to the user-events topic and marks them as sent.
+ * A row is only marked once the broker acknowledged it, so delivery is at-least-once. One instance relays at a
+ * time, and the broker acks are awaited outside any transaction.
+ */
+@Slf4j
+@Component
+public class OutboxRelay {
+
+    // Lets the producer's own delivery timeout fail the send before the relay stops waiting for it
+    private static final long SEND_TIMEOUT_MARGIN_MS = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final UserEventPublisher userEventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+    private final long retentionHours;
+
+    public OutboxRelay(OutboxEventRepository outboxEventRepository,
+                       UserEventPublisher userEventPublisher,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${user.outbox.batch-size:500}") int batchSize,
+                       @Value("${spring.kafka.producer.properties.delivery.timeout.ms:120000}") long deliveryTimeoutMs,
+                       @Value("${user.outbox.retention-hours:24}") long retentionHours) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.userEventPublisher = userEventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = deliveryTimeoutMs + SEND_TIMEOUT_MARGIN_MS;
+        this.retentionHours = retentionHours;
+    }
+
+    @Scheduled(fixedDelayString = "${user.outbox.relay-interval-ms:500}")
+    public void relay() {
+        boolean ran = outboxEventRepository.relayExclusively(() -> {
+            int relayed;
+            do {
+                relayed = relayBatch();
+            } while (relayed == batchSize);
+        });
+        if (!ran) {
+            log.debug("Outbox is being relayed by another instance, skipping this run");
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${user.outbox.purge-interval-ms:3600000}")
+    public void purge() {
+        transactionTemplate.executeWithoutResult(status ->
+                outboxEventRepository.deleteSentBefore(LocalDateTime.now().minusHours(retentionHours)));
+    }
+
+    int relayBatch() {
+        List<OutboxEvent> batch = transactionTemplate.execute(status ->
+                outboxEventRepository.findBySentAtIsNullOrderByIdAsc(Limit.of(batchSize)));
+        if (batch == null || batch.isEmpty()) {
+            return 0;
+        }
+
+        List<CompletableFuture<SendResult<String, UserEventDto>>> futures = new ArrayList<>(batch.size());
+        for (OutboxEvent outboxEvent : batch) {
+            futures.add(userEventPublisher.publish(toEvent(outboxEvent)));
+        }
+
+        // Only the acknowledged prefix is marked, the rest is retried in order on the next run. The wait outlasts the
+        // producer's delivery.timeout.ms, so a row is never re-sent while the producer is still retrying it
+        List<Long> sent = new ArrayList<>(batch.size());
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get(sendTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.warn("Failed to publish outbox event {}, will retry", batch.get(i).getId(), e);
+                break;
+            }
+            sent.add(batch.get(i).getId());
+        }
+        if (!sent.isEmpty()) {
+            transactionTemplate.executeWithoutResult(status -> outboxEventRepository.markSent(sent, LocalDateTime.now()));
+        }
+        return sent.size();
+    }
+
+    static UserEventDto toEvent(OutboxEvent outboxEvent) {
+        UserEventDto event = new UserEventDto();
+        event.setEventId(outboxEvent.getEventId());
+        if (outboxEvent.getCreatedAt() != null) {
+            event.setTimestamp(outboxEvent.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        }
+        event.setOperation(outboxEvent.getOperation());
+        event.setUserId(outboxEvent.getUserId());
+        event.setEmail(outboxEvent.getEmail());
+        event.setName(outboxEvent.getName());
+        return event;
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.userservice.service;
+
+import com.example.events.UserEventDto;
+import com.example.userservice.dto.UserCreateDto;
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.dto.UserUpdateDto;
+import com.example.userservice.exception.EmailAlreadyExistsException;
+import com.example.userservice.exception.ResourceNotFoundException;
+import com.example.userservice.mapper.UserMapper;
+import com.example.userservice.model.OutboxEvent;
+import com.example.userservice.model.User;
+import com.example.userservice.repository.ReactiveOutboxEventRepository;
+import com.example.userservice.repository.ReactiveUserRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.kafka.core.reactive.ReactiveKafkaProducerTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Non-blocking counterpart of {@link UserService} for the {@code reactive} profile.
+ * <p>
+ * Writes record their outbox event in the same R2DBC transaction and then send it straight away with the
+ * reactive Kafka producer, marking it sent once the broker acknowledges. If that send fails the event stays
+ * unsent and {@link OutboxRelay} publishes it; an event sent by both is dropped by consumers on its event id.
+ * While an earlier event of the same user is still unsent, the new one is left to the relay as well, which
+ * publishes in id order, so a user's events never overtake each other.
+ */
+@Slf4j
+@Service
+@Profile("reactive")
+@RequiredArgsConstructor
+public class ReactiveUserService {
+
+    private final ReactiveUserRepository userRepository;
+    private final ReactiveOutboxEventRepository outboxEventRepository;
+    private final UserMapper userMapper;
+    private final TransactionalOperator transactionalOperator;
+    private final ReactiveKafkaProducerTemplate<String, UserEventDto> kafkaTemplate;
+
+    public Flux<UserDto> findPage(Long afterId, int size) {
+        return userRepository.findPage(afterId != null ? afterId : 0L, size).map(userMapper::toDto);
+    }
+
+    /**
+     * Emits every user in id order, reading further rows from the database only as the subscriber requests them.
+     */
+    public Flux<UserDto> streamAll() {
+        return userRepository.streamAllOrderById().map(userMapper::toDto);
+    }
+
+    public Mono<UserDto> findById(Long id) {
+        return userRepository.findById(id)
+                .switchIfEmpty(Mono.error(() -> notFound(id)))
+                .map(userMapper::toDto);
+    }
+
+    public Mono<UserDto> create(UserCreateDto createDto) {
+        return write("CREATE", rejectingDuplicateEmail(createDto.getEmail(),
+                userRepository.insert(userMapper.toEntity(createDto))));
+    }
+
+    public Mono<UserDto> update(Long id, UserUpdateDto updateDto) {
+        if (userMapper.isEmpty(updateDto)) {
+            return findById(id);
+        }
+        return write("UPDATE", rejectingDuplicateEmail(updateDto.getEmail(), userRepository.update(id, updateDto))
+                .switchIfEmpty(Mono.error(() -> notFound(id))));
+    }
+
+    public Mono<Void> delete(Long id) {
+        return write("DELETE", userRepository.deleteReturning(id)
+                .switchIfEmpty(Mono.error(() -> notFound(id))))
+                .then();
+    }
+
+    private Mono<UserDto> write(String operation, Mono<User> userChange) {
+        return userChange
+                .flatMap(user -> outboxEventRepository.insert(UserService.newEvent(operation, user))
+                        .map(event -> new Change(user, event)))
+                .as(transactionalOperator::transactional)
+                .flatMap(written -> publish(written.event()).thenReturn(userMapper.toDto(written.user())));
+    }
+
+    private Mono<Void> publish(OutboxEvent event) {
+        UserEventDto userEvent = OutboxRelay.toEvent(event);
+        return outboxEventRepository.hasUnsentBefore(event.getUserId(), event.getId())
+                .filter(earlierUnsent -> !earlierUnsent)
+                .flatMap(none -> kafkaTemplate.send(UserEventPublisher.USER_TOPIC, String.valueOf(event.getUserId()),
+                        userEvent))
+                .flatMap(result -> outboxEventRepository.markSent(event.getId()))
+                .onErrorResume(e -> {
+                    log.warn("Failed to publish outbox event {}, leaving it to the relay", event.getId(), e);
+                    return Mono.empty();
+                })
+                .then();
+    }
+
+    // There is no email filter on this path, so the unique constraint is the only check; 409 as on the servlet stack
+    private static Mono<User> rejectingDuplicateEmail(String email, Mono<User> write) {
+        return write.onErrorMap(e -> UserService.isDuplicateEmail(email, e),
+                e -> new EmailAlreadyExistsException(email));
+    }
+
+    private static ResourceNotFoundException notFound(Long id) {
+        return new ResourceNotFoundException("User not found with id: " + id);
+    }
+
+    private record Change(User user, OutboxEvent event) {
+    }
+}
@@ -0,0 +1,209 @@
+package com.example.userservice.service;
+
+import com.example.userservice.repository.UserRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.stream.Stream;
+
+/**
+ * Bloom filter over the emails of all users, so a new email can be told apart from a taken one without a query.
+ * A miss means the email is certainly free; a hit is confirmed with an indexed exists-query. It is sized for
+ * {@code user.email-filter.expected-emails} at {@code user.email-filter.false-positive-rate}, about 1.2 MB per
+ * million emails at 1%.
+ * <p>
+ * The filter is filled from the users table in the background once the application is ready and every
+ * {@code user.email-filter.rebuild-interval-ms}; until the first fill it answers "maybe" for every email. Emails
+ * are added as users are created or change their email, but bits cannot be cleared, so deleted and replaced emails
+ * stay false positives until the next rebuild. Emails taken through another instance are unknown until then as
+ * well; the unique constraint on {@code users.email} still rejects those.
+ */
+@Slf4j
+@Service
+public class UserEmailFilter implements MeterBinder {
+
+    private final UserRepository userRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int numBits;
+    private final int numHashes;
+
+    private volatile Bits current;
+    // Set while a rebuild streams the table, so emails added meanwhile are not lost when it is swapped in
+    private volatile Bits building;
+    private final AtomicBoolean rebuilding = new AtomicBoolean();
+
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong falsePositives = new AtomicLong();
+
+    public UserEmailFilter(UserRepository userRepository,
+                           TransactionTemplate transactionTemplate,
+                           @Value("${user.email-filter.expected-emails:1000000}") int expectedEmails,
+                           @Value("${user.email-filter.false-positive-rate:0.01}") double falsePositiveRate) {
+        this.userRepository = userRepository;
+        this.transactionTemplate = transactionTemplate;
+        double bits = -expectedEmails * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2));
+        this.numBits = (int) Math.min(Integer.MAX_VALUE - 63L, Math.max(64, (long) Math.ceil(bits / 64) * 64));
+        this.numHashes = Math.max(1, (int) Math.round(numBits / (double) Math.max(expectedEmails, 1) * Math.log(2)));
+    }
+
+    /**
+     * Returns true if a user with this email exists, or false without a query if the filter has never seen it.
+     */
+    public boolean isTaken(String email, Long exceptUserId) {
+        if (!mightContain(email)) {
+            misses.incrementAndGet();
+            return false;
+        }
+        hits.incrementAndGet();
+        boolean taken = exceptUserId == null
+                ? userRepository.existsByEmail(email)
+                : userRepository.existsByEmailAndIdNot(email, exceptUserId);
+        if (!taken) {
+            falsePositives.incrementAndGet();
+        }
+        return taken;
+    }
+
+    public boolean mightContain(String email) {
+        Bits bits = current;
+        return bits == null || bits.mightContain(hash(email));
+    }
+
+    public void add(String email) {
+        long hash = hash(email);
+        Bits bits = current;
+        if (bits != null) {
+            bits.put(hash);
+        }
+        Bits next = building;
+        if (next != null) {
+            next.put(hash);
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(initialDelayString = "${user.email-filter.rebuild-interval-ms:21600000}",
+            fixedDelayString = "${user.email-filter.rebuild-interval-ms:21600000}")
+    public void scheduleRebuild() {
+        // Off the scheduler thread, which the outbox relay shares
+        Thread.ofVirtual().name("user-email-filter-rebuild").start(this::rebuild);
+    }
+
+    void rebuild() {
+        if (!rebuilding.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            Bits next = new Bits(numBits, numHashes);
+            building = next;
+            AtomicLong count = new AtomicLong();
+            transactionTemplate.executeWithoutResult(status -> {
+                try (Stream<String> emails = userRepository.streamAllEmails()) {
+                    emails.forEach(email -> {
+                        next.put(hash(email));
+                        count.incrementAndGet();
+                    });
+                }
+            });
+            current = next;
+            log.info("Email filter rebuilt from {} users in {} ms, {} KiB", count,
+                    (System.nanoTime() - start) / 1_000_000, bytes() / 1024);
+        } catch (RuntimeException e) {
+            log.warn("Cannot rebuild email filter, keeping the previous one", e);
+        } finally {
+            building = null;
+            rebuilding.set(false);
+        }
+    }
+
+    boolean isReady() {
+        return current != null;
+    }
+
+    long bytes() {
+        return numBits / 8L;
+    }
+
+    // FNV-1a over the UTF-16 chars, finished with the MurmurHash3 mixer so nearby strings spread over all 64 bits
+    static long hash(String email) {
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < email.length(); i++) {
+            hash = (hash ^ email.charAt(i)) * 0x100000001b3L;
+        }
+        hash = (hash ^ (hash >>> 33)) * 0xff51afd7ed558ccdL;
+        hash = (hash ^ (hash >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+
+    static final class Bits {
+
+        private final AtomicLongArray words;
+        private final int numBits;
+        private final int numHashes;
+
+        Bits(int numBits, int numHashes) {
+            this.words = new AtomicLongArray(numBits / 64);
+            this.numBits = numBits;
+            this.numHashes = numHashes;
+        }
+
+        // Bit positions h1 + i * h2 from the two halves of the hash (Kirsch-Mitzenmacher)
+        void put(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < numHashes; i++) {
+                int bit = Math.floorMod(h1 + i * h2, numBits);
+                long mask = 1L << bit;
+                int word = bit >>> 6;
+                long value = words.get(word);
+                while ((value & mask) == 0 && !words.compareAndSet(word, value, value | mask)) {
+                    value = words.get(word);
+                }
+            }
+        }
+
+        boolean mightContain(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32) | 1;
+            for (int i = 0; i < numHashes; i++) {
+                int bit = Math.floorMod(h1 + i * h2, numBits);
+                if ((words.get(bit >>> 6) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("user.email-filter.bytes", this, UserEmailFilter::bytes)
+                .description("Memory held by the email Bloom filter")
+                .register(registry);
+        FunctionCounter.builder("user.email-filter.checks", misses, AtomicLong::get)
+                .tag("result", "miss")
+                .description("Emails checked against the filter")
+                .register(registry);
+        FunctionCounter.builder("user.email-filter.checks", hits, AtomicLong::get)
+                .tag("result", "hit")
+                .description("Emails checked against the filter")
+                .register(registry);
+        FunctionCounter.builder("user.email-filter.false-positives", falsePositives, AtomicLong::get)
+                .description("Filter hits the database did not confirm")
+                .register(registry);
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.userservice.service;
+
+import com.example.events.UserEventDto;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.kafka.clients.producer.BufferExhaustedException;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Sends user events to the user-events topic keyed by user id, so every event of one user lands on the same
+ * partition and is consumed in the order it was written.
+ * <p>
+ * Transient broker errors are retried inside the producer (idempotent, so retries neither duplicate nor reorder
+ * records) until {@code delivery.timeout.ms}; anything that still fails is reported through the returned future
+ * and retried by the caller. When the producer buffer is full, {@link #publish} blocks for up to
+ * {@code max.block.ms} and then fails, which slows the caller down to the rate the broker accepts.
+ */
+@Slf4j
+@Component
+public class UserEventPublisher {
+
+    public static final String USER_TOPIC = "user-events";
+
+    private final KafkaTemplate<String, UserEventDto> kafkaTemplate;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Timer acked;
+    private final Timer failed;
+    private final Counter bufferFull;
+
+    public UserEventPublisher(KafkaTemplate<String, UserEventDto> kafkaTemplate, MeterRegistry meterRegistry) {
+        this.kafkaTemplate = kafkaTemplate;
+        this.acked = Timer.builder("user.events.publish").tag("result", "acked").register(meterRegistry);
+        this.failed = Timer.builder("user.events.publish").tag("result", "failed").register(meterRegistry);
+        this.bufferFull = Counter.builder("user.events.buffer.full")
+                .description("Sends rejected after waiting max.block.ms for producer buffer space")
+                .register(meterRegistry);
+        meterRegistry.gauge("user.events.in.flight", inFlight);
+    }
+
+    public CompletableFuture<SendResult<String, UserEventDto>> publish(UserEventDto event) {
+        long start = System.nanoTime();
+        inFlight.incrementAndGet();
+        CompletableFuture<SendResult<String, UserEventDto>> future;
+        try {
+            future = kafkaTemplate.send(USER_TOPIC, key(event), event);
+        } catch (RuntimeException e) {
+            future = CompletableFuture.failedFuture(e);
+        }
+        return future.whenComplete((result, ex) -> {
+            inFlight.decrementAndGet();
+            if (ex == null) {
+                acked.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+                return;
+            }
+            failed.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            if (isBufferFull(ex)) {
+                bufferFull.increment();
+            }
+            log.debug("Failed to publish {} event for user {}", event.getOperation(), event.getUserId(), ex);
+        });
+    }
+
+    int inFlight() {
+        return inFlight.get();
+    }
+
+    private static String key(UserEventDto event) {
+        return event.getUserId() == null ? null : event.getUserId().toString();
+    }
+
+    private static boolean isBufferFull(Throwable ex) {
+        for (Throwable cause = ex; cause != null; cause = cause.getCause()) {
+            if (cause instanceof BufferExhaustedException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,238 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.BulkImportResultDto;
+import com.example.userservice.dto.UserCreateDto;
+import com.example.userservice.mapper.UserMapper;
+import com.example.userservice.model.OutboxEvent;
+import com.example.userservice.model.User;
+import com.example.userservice.repository.OutboxEventRepository;
+import com.example.userservice.repository.UserRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Imports users from NDJSON or CSV without holding the whole payload in memory. Valid rows are inserted with
+ * JDBC batches of {@code user.import.batch-size}, each batch committed together with its CREATE outbox events.
+ */
+@Slf4j
+@Service
+public class UserImportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private final UserRepository userRepository;
+    private final OutboxEventRepository outboxEventRepository;
+    private final UserMapper userMapper;
+    private final UserEmailFilter emailFilter;
+    private final Validator validator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final int maxReportedErrors;
+
+    public UserImportService(UserRepository userRepository,
+                             OutboxEventRepository outboxEventRepository,
+                             UserMapper userMapper,
+                             UserEmailFilter emailFilter,
+                             Validator validator,
+                             ObjectMapper objectMapper,
+                             TransactionTemplate transactionTemplate,
+                             @Value("${user.import.batch-size:1000}") int batchSize,
+                             @Value("${user.import.max-reported-errors:1000}") int maxReportedErrors) {
+        this.userRepository = userRepository;
+        this.outboxEventRepository = outboxEventRepository;
+        this.userMapper = userMapper;
+        this.emailFilter = emailFilter;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = transactionTemplate;
+        this.batchSize = batchSize;
+        this.maxReportedErrors = maxReportedErrors;
+    }
+
+    public BulkImportResultDto importUsers(BufferedReader reader, Format format) throws IOException {
+        BulkImportResultDto result = new BulkImportResultDto();
+        List<Row> batch = new ArrayList<>(batchSize);
+        CsvHeader csvHeader = null;
+        long lineNumber = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            if (line.isBlank()) {
+                continue;
+            }
+            if (format == Format.CSV && csvHeader == null) {
+                csvHeader = CsvHeader.parse(line);
+                continue;
+            }
+            result.setProcessed(result.getProcessed() + 1);
+            try {
+                UserCreateDto dto = format == Format.CSV ? csvHeader.toDto(line) : parseJson(line);
+                String violations = validate(dto);
+                if (violations != null) {
+                    reportError(result, lineNumber, violations);
+                    continue;
+                }
+                batch.add(new Row(lineNumber, dto));
+            } catch (IllegalArgumentException e) {
+                reportError(result, lineNumber, e.getMessage());
+                continue;
+            }
+            if (batch.size() == batchSize) {
+                flush(batch, result);
+                batch.clear();
+            }
+        }
+        flush(batch, result);
+        return result;
+    }
+
+    private void flush(List<Row> batch, BulkImportResultDto result) {
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Row> duplicates = new ArrayList<>();
+        Integer imported;
+        try {
+            imported = transactionTemplate.execute(status -> insertBatch(batch, duplicates));
+        } catch (DataAccessException e) {
+            log.warn("Bulk import batch of {} rows rejected", batch.size(), e);
+            for (Row row : batch) {
+                reportError(result, row.line(), "batch rejected by database: " + e.getMostSpecificCause().getMessage());
+            }
+            return;
+        }
+        for (Row row : duplicates) {
+            reportError(result, row.line(), "email: already exists");
+        }
+        result.setImported(result.getImported() + (imported != null ? imported : 0));
+    }
+
+    private int insertBatch(List<Row> batch, List<Row> duplicates) {
+        // Only emails the filter has seen can be taken; a batch of new emails needs no lookup at all
+        Set<String> candidates = batch.stream().map(row -> row.dto().getEmail())
+                .filter(emailFilter::mightContain).collect(Collectors.toSet());
+        Set<String> existing = candidates.isEmpty()
+                ? new HashSet<>() : new HashSet<>(userRepository.findExistingEmails(candidates));
+
+        List<User> users = new ArrayList<>(batch.size());
+        for (Row row : batch) {
+            if (!existing.add(row.dto().getEmail())) {
+                duplicates.add(row);
+                continue;
+            }
+            users.add(userMapper.toEntity(row.dto()));
+        }
+        userRepository.insertAll(users);
+        users.forEach(user -> emailFilter.add(user.getEmail()));
+
+        List<OutboxEvent> events = new ArrayList<>(users.size());
+        for (User user : users) {
+            OutboxEvent event = new OutboxEvent();
+            event.setOperation("CREATE");
+            event.setUserId(user.getId());
+            event.setEmail(user.getEmail());
+            event.setName(user.getName());
+            events.add(event);
+        }
+        outboxEventRepository.insertAll(events);
+        return users.size();
+    }
+
+    private UserCreateDto parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, UserCreateDto.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("malformed JSON: " + e.getOriginalMessage());
+        }
+    }
+
+    private String validate(UserCreateDto dto) {
+        Set<ConstraintViolation<UserCreateDto>> violations = validator.validate(dto);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(v -> v.getPropertyPath() + ": " + v.getMessage())
+                .sorted()
+                .collect(Collectors.joining("; "));
+    }
+
+    private void reportError(BulkImportResultDto result, long line, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new BulkImportResultDto.RowError(line, message));
+        }
+    }
+
+    private record Row(long line, UserCreateDto dto) {
+    }
+
+    private record CsvHeader(int nameIndex, int emailIndex, int ageIndex) {
+
+        static CsvHeader parse(String line) {
+            List<String> columns = splitCsv(line).stream().map(c -> c.trim().toLowerCase(Locale.ROOT)).toList();
+            return new CsvHeader(columns.indexOf("name"), columns.indexOf("email"), columns.indexOf("age"));
+        }
+
+        UserCreateDto toDto(String line) {
+            List<String> values = splitCsv(line);
+            UserCreateDto dto = new UserCreateDto();
+            dto.setName(value(values, nameIndex));
+            dto.setEmail(value(values, emailIndex));
+            String age = value(values, ageIndex);
+            if (age != null && !age.isEmpty()) {
+                try {
+                    dto.setAge(Integer.valueOf(age));
+                } catch (NumberFormatException e) {
+                    throw new IllegalArgumentException("age: not a number");
+                }
+            }
+            return dto;
+        }
+
+        private static String value(List<String> values, int index) {
+            return index >= 0 && index < values.size() ? values.get(index).trim() : null;
+        }
+
+        private static List<String> splitCsv(String line) {
+            List<String> values = new ArrayList<>();
+            StringBuilder current = new StringBuilder();
+            boolean quoted = false;
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        current.append('"');
+                        i++;
+                    } else if (c == '"') {
+                        quoted = false;
+                    } else {
+                        current.append(c);
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == ',') {
+                    values.add(current.toString());
+                    current.setLength(0);
+                } else {
+                    current.append(c);
+                }
+            }
+            values.add(current.toString());
+            return values;
+        }
+    }
+}
@@ -2,73 +2,221 @@ package com.example.userservice.service;
 
 import com.example.userservice.dto.UserCreateDto;
 import com.example.userservice.dto.UserDto;
-import com.example.userservice.dto.UserEventDto;
+import com.example.userservice.dto.UserSearchDto;
 import com.example.userservice.dto.UserUpdateDto;
+import com.example.userservice.mapper.UserMapper;
+import com.example.userservice.model.OutboxEvent;
 import com.example.userservice.model.User;
+import com.example.userservice.exception.EmailAlreadyExistsException;
+import com.example.userservice.exception.PreconditionFailedException;
 import com.example.userservice.exception.ResourceNotFoundException;
+import com.example.userservice.repository.OutboxEventRepository;
 import com.example.userservice.repository.UserRepository;
+import com.example.userservice.repository.UserSpecifications;
+import io.micrometer.core.annotation.Timed;
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
-import org.modelmapper.ModelMapper;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
-import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.Locale;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 @Service
 @RequiredArgsConstructor
+@Timed("user.service")
 public class UserService {
 
+    public static final String USER_CACHE = "users";
+
     private final UserRepository userRepository;
-    private final ModelMapper modelMapper;
-    private final KafkaTemplate<String, UserEventDto> kafkaTemplate;
+    private final UserMapper userMapper;
+    private final OutboxEventRepository outboxEventRepository;
+    private final EntityManager entityManager;
+    private final CacheManager cacheManager;
+    private final UserEmailFilter emailFilter;
 
-    private static final String USER_TOPIC = "user-events";
+    public List<UserDto> findPage(Long afterId, int size) {
+        return userRepository.findByIdGreaterThanOrderByIdAsc(afterId != null ? afterId : 0L, Limit.of(size)).stream()
+                .map(this::mapToDto)
+                .toList();
+    }
 
-    public List<UserDto> findAll() {
-        return userRepository.findAll().stream()
+    /**
+     * Returns up to {@code size} users matching {@code criteria} with an id greater than {@code afterId}, in id order.
+     * Keyset paging keeps deep pages as cheap as the first one and no count query is issued.
+     */
+    public List<UserDto> search(UserSearchDto criteria, Long afterId, int size) {
+        return userRepository.findBy(UserSpecifications.matching(criteria, afterId),
+                        query -> query.sortBy(Sort.by("id")).limit(size).all())
+                .stream()
                 .map(this::mapToDto)
-                .collect(Collectors.toList());
+                .toList();
     }
 
+    /**
+     * Pushes every user to {@code consumer} in id order while the rows are read from the database cursor.
+     * Entities are detached right after mapping so the persistence context does not grow with the table.
+     */
+    @Transactional(readOnly = true)
+    public void streamAll(Consumer<UserDto> consumer) {
+        try (Stream<User> users = userRepository.streamAllOrderById()) {
+            users.forEach(user -> {
+                consumer.accept(mapToDto(user));
+                entityManager.detach(user);
+            });
+        }
+    }
+
+    @Cacheable(cacheNames = USER_CACHE, key = "#id")
     public UserDto findById(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
         return mapToDto(user);
     }
 
+    /**
+     * Creates a user, or throws {@link EmailAlreadyExistsException} if the email is taken. Most new emails are
+     * known to be free from {@link UserEmailFilter} alone, so a taken one is usually rejected without an insert.
+     */
+    @Transactional
     public UserDto create(UserCreateDto createDto) {
-        User user = modelMapper.map(createDto, User.class);
-        User saved = userRepository.save(user);
-        sendKafkaMessage("CREATE", saved.getEmail());
+        requireEmailAvailable(createDto.getEmail(), null);
+        User user = userMapper.toEntity(createDto);
+        User saved = rejectingDuplicateEmail(createDto.getEmail(), () -> userRepository.save(user));
+        emailFilter.add(saved.getEmail());
+        recordEvent("CREATE", saved);
         return mapToDto(saved);
     }
 
+    @Transactional
+    @CacheEvict(cacheNames = USER_CACHE, key = "#id")
     public UserDto update(Long id, UserUpdateDto updateDto) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
-        if (updateDto.getName() != null) user.setName(updateDto.getName());
-        if (updateDto.getEmail() != null) user.setEmail(updateDto.getEmail());
-        if (updateDto.getAge() != null) user.setAge(updateDto.getAge());
-        User updated = userRepository.save(user);
+        if (updateDto.getEmail() != null && !updateDto.getEmail().equals(user.getEmail())) {
+            requireEmailAvailable(updateDto.getEmail(), id);
+        }
+        userMapper.applyUpdate(updateDto, user);
+        User updated = rejectingDuplicateEmail(updateDto.getEmail(), () -> userRepository.saveAndFlush(user));
+        emailFilter.add(updated.getEmail());
+        recordEvent("UPDATE", updated);
         return mapToDto(updated);
     }
 
+    /**
+     * Applies the non-null fields of {@code patchDto} with a single {@code UPDATE ... RETURNING} instead of
+     * loading and saving the entity. Non-null {@code expectedVersions} turn it into a conditional update that only
+     * applies while the user is at one of them.
+     */
+    @Transactional
+    @CacheEvict(cacheNames = USER_CACHE, key = "#id")
+    public UserDto patch(Long id, UserUpdateDto patchDto, Collection<Long> expectedVersions) {
+        if (userMapper.isEmpty(patchDto)) {
+            User user = userRepository.findById(id)
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
+            if (expectedVersions != null && !expectedVersions.contains(user.getVersion())) {
+                throw versionMismatch(id, expectedVersions);
+            }
+            return mapToDto(user);
+        }
+        if (patchDto.getEmail() != null) {
+            requireEmailAvailable(patchDto.getEmail(), id);
+        }
+        User patched = rejectingDuplicateEmail(patchDto.getEmail(),
+                        () -> userRepository.patch(id, patchDto, expectedVersions))
+                .orElseThrow(() -> userRepository.existsById(id)
+                        ? versionMismatch(id, expectedVersions)
+                        : new ResourceNotFoundException("User not found with id: " + id));
+        emailFilter.add(patched.getEmail());
+        recordEvent("UPDATE", patched);
+        return mapToDto(patched);
+    }
+
+    @Transactional
+    @CacheEvict(cacheNames = USER_CACHE, key = "#id")
     public void delete(Long id) {
-        User user = userRepository.findById(id)
+        User deleted = userRepository.deleteReturning(id)
                 .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + id));
-        sendKafkaMessage("DELETE", user.getEmail());
-        userRepository.deleteById(id);
+        recordEvent("DELETE", deleted);
     }
 
-    private void sendKafkaMessage(String operation, String email) {
-        UserEventDto event = new UserEventDto();
+    /**
+     * Deletes every existing user among {@code ids} with one statement and records a DELETE event for each.
+     *
+     * @return ids of the users that were actually deleted
+     */
+    @Transactional
+    public List<Long> deleteAll(Collection<Long> ids) {
+        List<User> deleted = userRepository.deleteAllReturning(new LinkedHashSet<>(ids));
+        outboxEventRepository.insertAll(deleted.stream().map(user -> newEvent("DELETE", user)).toList());
+        // The cache is transaction-aware, so these evictions run after the commit
+        Cache cache = cacheManager.getCache(USER_CACHE);
+        List<Long> deletedIds = deleted.stream().map(User::getId).toList();
+        if (cache != null) {
+            deletedIds.forEach(cache::evict);
+        }
+        return deletedIds;
+    }
+
+    private void requireEmailAvailable(String email, Long userId) {
+        if (email != null && emailFilter.isTaken(email, userId)) {
+            throw new EmailAlreadyExistsException(email);
+        }
+    }
+
+    // The filter can miss an email taken concurrently or through another instance; the unique constraint cannot
+    private <T> T rejectingDuplicateEmail(String email, Supplier<T> write) {
+        try {
+            return write.get();
+        } catch (DataIntegrityViolationException e) {
+            if (isDuplicateEmail(email, e)) {
+                throw new EmailAlreadyExistsException(email);
+            }
+            throw e;
+        }
+    }
+
+    // Also recognises the R2DBC driver's own exception, for violations that reach ReactiveUserService untranslated
+    static boolean isDuplicateEmail(String email, Throwable e) {
+        String message = e instanceof DataIntegrityViolationException violation
+                ? violation.getMostSpecificCause().getMessage()
+                : e instanceof R2dbcDataIntegrityViolationException ? e.getMessage() : null;
+        return email != null && message != null && message.toLowerCase(Locale.ROOT).contains("email");
+    }
+
+    private PreconditionFailedException versionMismatch(Long id, Collection<Long> expectedVersions) {
+        return new PreconditionFailedException("User " + id + " is not at any of the versions " + expectedVersions);
+    }
+
+    private void recordEvent(String operation, User user) {
+        outboxEventRepository.save(newEvent(operation, user));
+    }
+
+    static OutboxEvent newEvent(String operation, User user) {
+        OutboxEvent event = new OutboxEvent();
         event.setOperation(operation);
-        event.setEmail(email);
-        kafkaTemplate.send(USER_TOPIC, event);
+        event.setUserId(user.getId());
+        event.setEmail(user.getEmail());
+        event.setName(user.getName());
+        return event;
     }
+
     private UserDto mapToDto(User user) {
-        return modelMapper.map(user, UserDto.class);
+        return userMapper.toDto(user);
     }
 
 }
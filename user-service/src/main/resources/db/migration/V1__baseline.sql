@@ -0,0 +1,30 @@
+-- Schema of the prod profile, matching what Hibernate's ddl-auto=update creates from the entities.
+-- Existing databases created that way are baselined at this version instead of migrated.
+CREATE TABLE users
+(
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    name       VARCHAR(255) NOT NULL,
+    email      VARCHAR(255) NOT NULL,
+    age        INTEGER,
+    created_at TIMESTAMP(6),
+    version    BIGINT DEFAULT 0 NOT NULL,
+    CONSTRAINT users_email_key UNIQUE (email)
+);
+
+CREATE TABLE outbox_events
+(
+    id         BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY,
+    event_id   UUID,
+    operation  VARCHAR(255) NOT NULL,
+    user_id    BIGINT,
+    email      VARCHAR(255) NOT NULL,
+    name       VARCHAR(255),
+    created_at TIMESTAMP(6),
+    sent_at    TIMESTAMP(6)
+);
+
+-- Indexes behind GET /users/search (see UserSpecifications)
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX users_lower_email_prefix_idx ON users (lower(email) text_pattern_ops);
+CREATE INDEX users_lower_name_trgm_idx ON users USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX users_age_id_idx ON users (age, id);
@@ -0,0 +1,4 @@
+-- OutboxRelay polls unsent events in id order and purges sent ones by age. Kept out of V1 because databases
+-- baselined at V1 never had them; IF NOT EXISTS covers databases where they were added by hand.
+CREATE INDEX IF NOT EXISTS outbox_events_unsent_idx ON outbox_events (id) WHERE sent_at IS NULL;
+CREATE INDEX IF NOT EXISTS outbox_events_sent_at_idx ON outbox_events (sent_at);
@@ -0,0 +1,5 @@
+-- Indexes behind GET /users/search (see UserSpecifications). Runs after Hibernate has created the tables.
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX IF NOT EXISTS users_lower_email_prefix_idx ON users (lower(email) text_pattern_ops);
+CREATE INDEX IF NOT EXISTS users_lower_name_trgm_idx ON users USING gin (lower(name) gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS users_age_id_idx ON users (age, id);
@@ -0,0 +1,129 @@
+package com.example.userservice.controller;
+
+import com.example.userservice.dto.UserCreateDto;
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.exception.EmailAlreadyExistsException;
+import com.example.userservice.exception.ResourceNotFoundException;
+import com.example.userservice.service.ReactiveUserService;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@WebFluxTest(ReactiveUserController.class)
+@ActiveProfiles("reactive")
+class ReactiveUserControllerTest {
+
+    @Autowired
+    private WebTestClient webTestClient;
+
+    @MockBean
+    private ReactiveUserService userService;
+
+    @Test
+    void getAllUsers_returnsPage() {
+        when(userService.findPage(5L, UserController.DEFAULT_PAGE_SIZE)).thenReturn(Flux.just(createUserDto(6L)));
+
+        webTestClient.get().uri("/users?after=5")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody()
+                .jsonPath("$[0].id").isEqualTo(6)
+                .jsonPath("$[0].email").isEqualTo("user6@example.com");
+    }
+
+    @Test
+    void streamAllUsers_writesNdjson() {
+        when(userService.streamAll()).thenReturn(Flux.just(createUserDto(1L), createUserDto(2L)));
+
+        List<UserDto> users = webTestClient.get().uri("/users/stream")
+                .accept(MediaType.APPLICATION_NDJSON)
+                .exchange()
+                .expectStatus().isOk()
+                .returnResult(UserDto.class)
+                .getResponseBody()
+                .collectList()
+                .block();
+
+        assertEquals(List.of(1L, 2L), users.stream().map(UserDto::getId).toList());
+    }
+
+    @Test
+    void getUserById_missingUser_returnsNotFound() {
+        when(userService.findById(1L)).thenReturn(Mono.error(new ResourceNotFoundException("User not found with id: 1")));
+
+        webTestClient.get().uri("/users/1")
+                .exchange()
+                .expectStatus().isNotFound();
+    }
+
+    @Test
+    void getUserById_matchingIfNoneMatch_returnsNotModified() {
+        when(userService.findById(1L)).thenReturn(Mono.just(createUserDto(1L)));
+
+        webTestClient.get().uri("/users/1")
+                .ifNoneMatch("\"0\"")
+                .exchange()
+                .expectStatus().isNotModified()
+                .expectHeader().valueEquals("ETag", "\"0\"")
+                .expectBody().isEmpty();
+    }
+
+    @Test
+    void createUser_returnsCreated() {
+        when(userService.create(any(UserCreateDto.class))).thenReturn(Mono.just(createUserDto(1L)));
+
+        webTestClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"John Doe\",\"email\":\"user1@example.com\",\"age\":30}")
+                .exchange()
+                .expectStatus().isCreated()
+                .expectBody()
+                .jsonPath("$.id").isEqualTo(1);
+    }
+
+    @Test
+    void createUser_duplicateEmail_returnsConflict() {
+        when(userService.create(any(UserCreateDto.class)))
+                .thenReturn(Mono.error(new EmailAlreadyExistsException("user1@example.com")));
+
+        webTestClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"John Doe\",\"email\":\"user1@example.com\",\"age\":30}")
+                .exchange()
+                .expectStatus().isEqualTo(409);
+    }
+
+    @Test
+    void createUser_invalidEmail_returnsBadRequest() {
+        webTestClient.post().uri("/users")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("{\"name\":\"John Doe\",\"email\":\"not-an-email\"}")
+                .exchange()
+                .expectStatus().isBadRequest();
+
+        verifyNoInteractions(userService);
+    }
+
+    private static UserDto createUserDto(Long id) {
+        UserDto dto = new UserDto();
+        dto.setId(id);
+        dto.setName("User " + id);
+        dto.setEmail("user" + id + "@example.com");
+        dto.setAge(30);
+        dto.setVersion(0L);
+        return dto;
+    }
+}
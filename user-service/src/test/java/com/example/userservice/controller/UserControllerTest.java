@@ -1,8 +1,13 @@
 package com.example.userservice.controller;
 
+import com.example.userservice.dto.BulkImportResultDto;
 import com.example.userservice.dto.UserCreateDto;
 import com.example.userservice.dto.UserDto;
+import com.example.userservice.dto.UserSearchDto;
 import com.example.userservice.dto.UserUpdateDto;
+import com.example.userservice.exception.EmailAlreadyExistsException;
+import com.example.userservice.exception.PreconditionFailedException;
+import com.example.userservice.service.UserImportService;
 import com.example.userservice.service.UserService;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
@@ -10,15 +15,22 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.junit.jupiter.SpringExtension;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.function.Consumer;
+
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
@@ -26,6 +38,7 @@ import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.
 
 @ExtendWith(SpringExtension.class)
 @WebMvcTest(UserController.class)
+@Import(UserModelAssembler.class)
 class UserControllerTest {
 
     @Autowired
@@ -34,6 +47,9 @@ class UserControllerTest {
     @MockBean
     private UserService userService;
 
+    @MockBean
+    private UserImportService userImportService;
+
     @Autowired
     private ObjectMapper objectMapper;
 
@@ -41,25 +57,99 @@ class UserControllerTest {
     void getAllUsers_returnsListOfUsers() throws Exception {
         UserDto userDto = createUserDto();
         List<UserDto> users = List.of(userDto);
-        when(userService.findAll()).thenReturn(users);
+        when(userService.findPage(null, UserController.DEFAULT_PAGE_SIZE)).thenReturn(users);
 
         mockMvc.perform(get("/users"))
                 .andExpect(status().isOk())
-                .andExpect(jsonPath("$[0].id").value(1))
-                .andExpect(jsonPath("$[0].name").value("John Doe"));
+                .andExpect(jsonPath("$._embedded.userDtoList[0].id").value(1))
+                .andExpect(jsonPath("$._embedded.userDtoList[0].name").value("John Doe"))
+                .andExpect(jsonPath("$._links.next").doesNotExist());
+
+        verify(userService).findPage(null, UserController.DEFAULT_PAGE_SIZE);
+    }
+
+    @Test
+    void getAllUsers_fullPage_hasNextLink() throws Exception {
+        UserDto userDto = createUserDto();
+        when(userService.findPage(0L, 1)).thenReturn(List.of(userDto));
 
-        verify(userService).findAll();
+        mockMvc.perform(get("/users").param("after", "0").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._links.next.href").value("http://localhost/users?after=1&size=1"));
+    }
+
+    @Test
+    void getAllUsers_itemLinksPointAtUser() throws Exception {
+        when(userService.findPage(null, UserController.DEFAULT_PAGE_SIZE)).thenReturn(List.of(createUserDto()));
+
+        mockMvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.userDtoList[0]._links.self.href").value("http://localhost/users/1"))
+                .andExpect(jsonPath("$._embedded.userDtoList[0]._links.update.href").value("http://localhost/users/1"))
+                .andExpect(jsonPath("$._embedded.userDtoList[0]._links.delete.href").value("http://localhost/users/1"));
+    }
+
+    @Test
+    void getAllUsers_compact_omitsItemLinks() throws Exception {
+        when(userService.findPage(0L, 1)).thenReturn(List.of(createUserDto()));
+
+        mockMvc.perform(get("/users").param("after", "0").param("size", "1").param("compact", "true"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.userDtoList[0].id").value(1))
+                .andExpect(jsonPath("$._embedded.userDtoList[0]._links").doesNotExist())
+                .andExpect(jsonPath("$._links.next.href").value("http://localhost/users?after=1&size=1&compact=true"));
     }
 
     @Test
     void getAllUsers_emptyList() throws Exception {
-        when(userService.findAll()).thenReturn(Collections.emptyList());
+        when(userService.findPage(null, UserController.DEFAULT_PAGE_SIZE)).thenReturn(Collections.emptyList());
 
         mockMvc.perform(get("/users"))
                 .andExpect(status().isOk())
-                .andExpect(content().json("[]"));
+                .andExpect(jsonPath("$._embedded").doesNotExist())
+                .andExpect(jsonPath("$._links.next").doesNotExist());
+
+        verify(userService).findPage(null, UserController.DEFAULT_PAGE_SIZE);
+    }
+
+    @Test
+    void searchUsers_bindsCriteriaAndLinksNextPage() throws Exception {
+        when(userService.search(any(UserSearchDto.class), eq(0L), eq(1))).thenReturn(List.of(createUserDto()));
+
+        mockMvc.perform(get("/users/search").param("name", "john").param("minAge", "18")
+                        .param("after", "0").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.userDtoList[0].id").value(1))
+                .andExpect(jsonPath("$._links.next.href")
+                        .value("http://localhost/users/search?name=john&minAge=18&after=1&size=1"));
+
+        verify(userService).search(argThat(c -> "john".equals(c.getName()) && c.getMinAge() == 18), eq(0L), eq(1));
+    }
+
+    @Test
+    void streamAllUsers_writesNdjson() throws Exception {
+        UserDto first = createUserDto();
+        UserDto second = createUserDto();
+        second.setId(2L);
+        doAnswer(invocation -> {
+            Consumer<UserDto> consumer = invocation.getArgument(0);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(userService).streamAll(any());
+
+        MvcResult result = mockMvc.perform(get("/users/stream"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        String body = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_NDJSON))
+                .andReturn().getResponse().getContentAsString();
 
-        verify(userService).findAll();
+        String[] lines = body.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals(2L, objectMapper.readTree(lines[1]).get("id").asLong());
     }
 
     @Test
@@ -75,6 +165,54 @@ class UserControllerTest {
         verify(userService).findById(1L);
     }
 
+    @Test
+    void getUserById_returnsVersionAsEtag() throws Exception {
+        UserDto userDto = createUserDto();
+        userDto.setVersion(3L);
+        when(userService.findById(1L)).thenReturn(userDto);
+
+        mockMvc.perform(get("/users/1"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "\"3\""));
+    }
+
+    @Test
+    void getUserById_matchingIfNoneMatch_returnsNotModified() throws Exception {
+        UserDto userDto = createUserDto();
+        userDto.setVersion(3L);
+        when(userService.findById(1L)).thenReturn(userDto);
+
+        // GET compares ETags weakly
+        mockMvc.perform(get("/users/1").header("If-None-Match", "W/\"3\""))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", "\"3\""))
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get("/users/1").header("If-None-Match", "\"2\""))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.version").value(3));
+    }
+
+    @Test
+    void getAllUsers_unchangedPage_returnsNotModified() throws Exception {
+        UserDto userDto = createUserDto();
+        userDto.setVersion(0L);
+        when(userService.findPage(null, UserController.DEFAULT_PAGE_SIZE)).thenReturn(List.of(userDto));
+
+        String etag = mockMvc.perform(get("/users"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", startsWith("W/\"")))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/users").header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        userDto.setVersion(1L);
+        mockMvc.perform(get("/users").header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._embedded.userDtoList[0].version").value(1));
+    }
+
     @Test
     void createUser_validDto_returnsCreatedUser() throws Exception {
         UserCreateDto createDto = new UserCreateDto();
@@ -95,6 +233,20 @@ class UserControllerTest {
         verify(userService).create(any(UserCreateDto.class));
     }
 
+    @Test
+    void createUser_takenEmail_returnsConflict() throws Exception {
+        UserCreateDto createDto = new UserCreateDto();
+        createDto.setName("John Doe");
+        createDto.setEmail("john@example.com");
+        when(userService.create(any(UserCreateDto.class)))
+                .thenThrow(new EmailAlreadyExistsException("john@example.com"));
+
+        mockMvc.perform(post("/users")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(createDto)))
+                .andExpect(status().isConflict());
+    }
+
     @Test
     void createUser_invalidDto_returnsBadRequest() throws Exception {
         UserCreateDto invalidDto = new UserCreateDto();
@@ -109,6 +261,23 @@ class UserControllerTest {
         verify(userService, never()).create(any(UserCreateDto.class));
     }
 
+    @Test
+    void importUsers_csv_returnsImportResult() throws Exception {
+        BulkImportResultDto result = new BulkImportResultDto();
+        result.setProcessed(2);
+        result.setImported(1);
+        result.setFailed(1);
+        result.getErrors().add(new BulkImportResultDto.RowError(3, "email: must be a well-formed email address"));
+        when(userImportService.importUsers(any(), eq(UserImportService.Format.CSV))).thenReturn(result);
+
+        mockMvc.perform(post("/users/bulk")
+                        .contentType("text/csv")
+                        .content("name,email\nJohn,john@example.com\nJane,invalid\n"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported").value(1))
+                .andExpect(jsonPath("$.errors[0].line").value(3));
+    }
+
     @Test
     void updateUser_validDto_returnsUpdatedUser() throws Exception {
         UserUpdateDto updateDto = new UserUpdateDto();
@@ -132,6 +301,43 @@ class UserControllerTest {
         verify(userService).update(eq(1L), any(UserUpdateDto.class));
     }
 
+    @Test
+    void patchUser_passesIfMatchVersion() throws Exception {
+        UserDto patched = createUserDto();
+        patched.setAge(31);
+        when(userService.patch(eq(1L), any(UserUpdateDto.class), eq(List.of(3L, 4L)))).thenReturn(patched);
+
+        mockMvc.perform(patch("/users/1")
+                        .header("If-Match", "\"3\", W/\"5\", \"4\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"age\":31}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.age").value(31));
+    }
+
+    @Test
+    void patchUser_staleVersion_returnsPreconditionFailed() throws Exception {
+        when(userService.patch(eq(1L), any(UserUpdateDto.class), eq(List.of(2L))))
+                .thenThrow(new PreconditionFailedException("stale"));
+
+        mockMvc.perform(patch("/users/1")
+                        .header("If-Match", "\"2\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"age\":31}"))
+                .andExpect(status().isPreconditionFailed());
+    }
+
+    @Test
+    void patchUser_weakIfMatch_returnsPreconditionFailed() throws Exception {
+        mockMvc.perform(patch("/users/1")
+                        .header("If-Match", "W/\"3\"")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"age\":31}"))
+                .andExpect(status().isPreconditionFailed());
+
+        verify(userService, never()).patch(any(), any(), any());
+    }
+
     @Test
     void deleteUser_existingId_returnsNoContent() throws Exception {
         doNothing().when(userService).delete(1L);
@@ -142,6 +348,16 @@ class UserControllerTest {
         verify(userService).delete(1L);
     }
 
+    @Test
+    void deleteUsers_returnsDeletedIds() throws Exception {
+        when(userService.deleteAll(List.of(1L, 2L, 3L))).thenReturn(List.of(1L, 3L));
+
+        mockMvc.perform(delete("/users").param("ids", "1,2,3"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested").value(3))
+                .andExpect(jsonPath("$.deleted[1]").value(3));
+    }
+
     private UserDto createUserDto() {
         UserDto dto = new UserDto();
         dto.setId(1L);
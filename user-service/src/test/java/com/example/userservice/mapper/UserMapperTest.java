@@ -0,0 +1,67 @@
+package com.example.userservice.mapper;
+
+import com.example.userservice.dto.UserCreateDto;
+import com.example.userservice.dto.UserDto;
+import com.example.userservice.dto.UserUpdateDto;
+import com.example.userservice.model.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class UserMapperTest {
+
+    private final UserMapper userMapper = new UserMapper();
+
+    @Test
+    void toDto_copiesAllFields() {
+        User user = new User();
+        user.setId(1L);
+        user.setName("John Doe");
+        user.setEmail("john@example.com");
+        user.setAge(30);
+        user.setCreatedAt(LocalDateTime.now());
+
+        UserDto dto = userMapper.toDto(user);
+
+        assertEquals(1L, dto.getId());
+        assertEquals("John Doe", dto.getName());
+        assertEquals("john@example.com", dto.getEmail());
+        assertEquals(30, dto.getAge());
+        assertEquals(user.getCreatedAt(), dto.getCreatedAt());
+        assertTrue(dto.getLinks().isEmpty());
+    }
+
+    @Test
+    void toEntity_leavesGeneratedFieldsEmpty() {
+        UserCreateDto createDto = new UserCreateDto();
+        createDto.setName("John Doe");
+        createDto.setEmail("john@example.com");
+        createDto.setAge(30);
+
+        User user = userMapper.toEntity(createDto);
+
+        assertNull(user.getId());
+        assertNull(user.getCreatedAt());
+        assertEquals("John Doe", user.getName());
+        assertEquals("john@example.com", user.getEmail());
+        assertEquals(30, user.getAge());
+    }
+
+    @Test
+    void applyUpdate_onlyOverwritesProvidedFields() {
+        User user = new User();
+        user.setName("John Doe");
+        user.setEmail("john@example.com");
+        user.setAge(30);
+        UserUpdateDto updateDto = new UserUpdateDto();
+        updateDto.setAge(31);
+
+        userMapper.applyUpdate(updateDto, user);
+
+        assertEquals("John Doe", user.getName());
+        assertEquals("john@example.com", user.getEmail());
+        assertEquals(31, user.getAge());
+    }
+}
@@ -0,0 +1,82 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Testcontainers;
+import org.testcontainers.utility.DockerImageName;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// DELETE ... RETURNING has no H2 equivalent, so these run against PostgreSQL
+@DataJpaTest
+@ActiveProfiles("test")
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+class UserRepositoryPostgresTest {
+
+    private static final PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>(DockerImageName.parse("postgres:16-alpine"));
+
+    @DynamicPropertySource
+    static void postgresProperties(DynamicPropertyRegistry registry) {
+        postgres.start();
+        registry.add("spring.datasource.url", postgres::getJdbcUrl);
+        registry.add("spring.datasource.username", postgres::getUsername);
+        registry.add("spring.datasource.password", postgres::getPassword);
+        registry.add("spring.datasource.driverClassName", postgres::getDriverClassName);
+        registry.add("spring.jpa.database-platform", () -> "org.hibernate.dialect.PostgreSQLDialect");
+        registry.add("spring.jpa.properties.hibernate.dialect", () -> "org.hibernate.dialect.PostgreSQLDialect");
+    }
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Test
+    void deleteReturning_removesRowsAndReturnsThem() {
+        List<User> users = List.of(user("a@example.com"), user("b@example.com"), user("c@example.com"));
+        userRepository.insertAll(users);
+        Long first = users.get(0).getId();
+
+        assertEquals("a@example.com", userRepository.deleteReturning(first).orElseThrow().getEmail());
+        assertTrue(userRepository.deleteReturning(first).isEmpty());
+
+        List<User> deleted = userRepository.deleteAllReturning(List.of(first, users.get(1).getId(), users.get(2).getId()));
+
+        assertEquals(List.of("b@example.com", "c@example.com"), deleted.stream().map(User::getEmail).sorted().toList());
+        assertEquals(0, userRepository.count());
+    }
+
+    // Outside the test transaction, so each relayExclusively call takes its own connection and session
+    @Test
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    void relayExclusively_runsOneRelayAtATime() {
+        AtomicBoolean nestedRan = new AtomicBoolean(true);
+
+        assertTrue(outboxEventRepository.relayExclusively(() ->
+                nestedRan.set(outboxEventRepository.relayExclusively(() -> { }))));
+
+        assertFalse(nestedRan.get());
+        assertTrue(outboxEventRepository.relayExclusively(() -> { }));
+    }
+
+    private User user(String email) {
+        User user = new User();
+        user.setName("Name");
+        user.setEmail(email);
+        return user;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.userservice.repository;
+
+import com.example.userservice.dto.UserSearchDto;
+import com.example.userservice.dto.UserUpdateDto;
+import com.example.userservice.model.OutboxEvent;
+import com.example.userservice.model.User;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+class UserRepositoryTest {
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Test
+    void insertAll_assignsGeneratedIds() {
+        List<User> users = List.of(user("a@example.com"), user("b@example.com"));
+
+        userRepository.insertAll(users);
+
+        assertNotNull(users.get(0).getId());
+        assertTrue(users.get(1).getId() > users.get(0).getId());
+        assertEquals("b@example.com", userRepository.findById(users.get(1).getId()).orElseThrow().getEmail());
+        assertEquals(List.of("a@example.com"), userRepository.findExistingEmails(List.of("a@example.com", "c@example.com")));
+    }
+
+    @Test
+    void outboxInsertAll_writesUnsentEvents() {
+        OutboxEvent event = new OutboxEvent();
+        event.setOperation("CREATE");
+        event.setUserId(7L);
+        event.setEmail("a@example.com");
+        event.setName("Name");
+
+        outboxEventRepository.insertAll(List.of(event));
+
+        List<OutboxEvent> stored = outboxEventRepository.findAll();
+        assertEquals(1, stored.size());
+        assertNull(stored.get(0).getSentAt());
+        assertEquals(7L, stored.get(0).getUserId());
+        assertEquals("Name", stored.get(0).getName());
+    }
+
+    @Test
+    void patch_updatesOnlyGivenColumnsAndBumpsVersion() {
+        User user = user("a@example.com");
+        user.setAge(30);
+        userRepository.insertAll(List.of(user));
+        UserUpdateDto patch = new UserUpdateDto();
+        patch.setAge(31);
+
+        User patched = userRepository.patch(user.getId(), patch, List.of(0L)).orElseThrow();
+
+        assertEquals("Name", patched.getName());
+        assertEquals(31, patched.getAge());
+        assertEquals(1L, patched.getVersion());
+        assertTrue(userRepository.patch(user.getId(), patch, List.of(0L)).isEmpty());
+        assertEquals(2L, userRepository.patch(user.getId(), patch, List.of(0L, 1L)).orElseThrow().getVersion());
+        assertTrue(userRepository.patch(user.getId() + 1, patch, null).isEmpty());
+    }
+
+    @Test
+    void search_combinesCriteriaAndPagesById() {
+        User alice = user("Alice.Smith@example.com", "Alice Smith", 30);
+        User bob = user("bob@example.com", "Bob Smithers", 41);
+        User carol = user("alina@example.org", "Carol 100%", 25);
+        userRepository.insertAll(List.of(alice, bob, carol));
+
+        assertEquals(List.of(alice.getId(), bob.getId()), search(criteria(null, "SMITH", null, null), null));
+        assertEquals(List.of(bob.getId()), search(criteria(null, "smith", null, null), alice.getId()));
+        assertEquals(List.of(alice.getId(), carol.getId()), search(criteria("ali", null, null, null), null));
+        assertEquals(List.of(alice.getId()), search(criteria("ali", null, 28, 35), null));
+        assertEquals(List.of(carol.getId()), search(criteria(null, "0%", null, null), null));
+        assertEquals(List.of(), search(criteria("a_ice", null, null, null), null));
+    }
+
+    private List<Long> search(UserSearchDto criteria, Long afterId) {
+        return userRepository.findBy(UserSpecifications.matching(criteria, afterId),
+                        query -> query.sortBy(Sort.by("id")).all())
+                .stream()
+                .map(User::getId)
+                .toList();
+    }
+
+    private UserSearchDto criteria(String email, String name, Integer minAge, Integer maxAge) {
+        UserSearchDto criteria = new UserSearchDto();
+        criteria.setEmail(email);
+        criteria.setName(name);
+        criteria.setMinAge(minAge);
+        criteria.setMaxAge(maxAge);
+        return criteria;
+    }
+
+    private User user(String email, String name, Integer age) {
+        User user = user(email);
+        user.setName(name);
+        user.setAge(age);
+        return user;
+    }
+
+    private User user(String email) {
+        User user = new User();
+        user.setName("Name");
+        user.setEmail(email);
+        return user;
+    }
+}
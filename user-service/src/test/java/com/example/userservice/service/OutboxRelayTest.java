@@ -0,0 +1,134 @@
+package com.example.userservice.service;
+
+import com.example.events.UserEventDto;
+import com.example.userservice.model.OutboxEvent;
+import com.example.userservice.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private UserEventPublisher userEventPublisher;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        outboxRelay = new OutboxRelay(outboxEventRepository, userEventPublisher,
+                new TransactionTemplate(transactionManager), 10, 1000, 24);
+    }
+
+    @Test
+    void relay_drainsFullBatchesWhileHoldingTheLock() {
+        when(outboxEventRepository.relayExclusively(any())).thenAnswer(invocation -> {
+            invocation.getArgument(0, Runnable.class).run();
+            return true;
+        });
+        List<OutboxEvent> fullBatch = LongStream.rangeClosed(1, 10)
+                .mapToObj(id -> outboxEvent(id, "CREATE")).toList();
+        when(outboxEventRepository.findBySentAtIsNullOrderByIdAsc(Limit.of(10)))
+                .thenReturn(fullBatch)
+                .thenReturn(List.of(outboxEvent(11L, "CREATE")));
+        when(userEventPublisher.publish(any(UserEventDto.class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        outboxRelay.relay();
+
+        verify(userEventPublisher, times(11)).publish(any(UserEventDto.class));
+        verify(outboxEventRepository).markSent(eq(List.of(11L)), any());
+        // The acks are awaited between transactions: one to read and one to mark each batch
+        verify(transactionManager, times(4)).commit(any());
+    }
+
+    @Test
+    void relay_lockHeldByAnotherInstance_skipsTheRun() {
+        when(outboxEventRepository.relayExclusively(any())).thenReturn(false);
+
+        outboxRelay.relay();
+
+        verify(outboxEventRepository, never()).findBySentAtIsNullOrderByIdAsc(any());
+        verifyNoInteractions(userEventPublisher);
+    }
+
+    @Test
+    void relayBatch_publishesAndMarksAcknowledgedEvents() {
+        OutboxEvent created = outboxEvent(1L, "CREATE");
+        when(outboxEventRepository.findBySentAtIsNullOrderByIdAsc(Limit.of(10)))
+                .thenReturn(List.of(created, outboxEvent(2L, "DELETE")));
+        when(userEventPublisher.publish(any(UserEventDto.class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        int relayed = outboxRelay.relayBatch();
+
+        assertEquals(2, relayed);
+        ArgumentCaptor<UserEventDto> events = ArgumentCaptor.forClass(UserEventDto.class);
+        verify(userEventPublisher, times(2)).publish(events.capture());
+        assertEquals("CREATE", events.getAllValues().get(0).getOperation());
+        assertEquals(created.getEventId(), events.getAllValues().get(0).getEventId());
+        assertEquals(2L, events.getAllValues().get(1).getUserId());
+        assertEquals("User 2", events.getAllValues().get(1).getName());
+        verify(outboxEventRepository).markSent(eq(List.of(1L, 2L)), any());
+    }
+
+    @Test
+    void relayBatch_stopsAtFirstFailedSend() {
+        when(outboxEventRepository.findBySentAtIsNullOrderByIdAsc(Limit.of(10)))
+                .thenReturn(List.of(outboxEvent(1L, "CREATE"), outboxEvent(2L, "CREATE"), outboxEvent(3L, "CREATE")));
+        when(userEventPublisher.publish(any(UserEventDto.class)))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)))
+                .thenReturn(CompletableFuture.failedFuture(new IllegalStateException("broker down")))
+                .thenReturn(CompletableFuture.completedFuture(mock(SendResult.class)));
+
+        int relayed = outboxRelay.relayBatch();
+
+        assertEquals(1, relayed);
+        verify(outboxEventRepository).markSent(eq(List.of(1L)), any());
+    }
+
+    @Test
+    void relayBatch_emptyOutbox_sendsNothing() {
+        when(outboxEventRepository.findBySentAtIsNullOrderByIdAsc(Limit.of(10))).thenReturn(Collections.emptyList());
+
+        assertEquals(0, outboxRelay.relayBatch());
+
+        verifyNoInteractions(userEventPublisher);
+        verify(outboxEventRepository, never()).markSent(anyCollection(), any());
+    }
+
+    private OutboxEvent outboxEvent(Long id, String operation) {
+        OutboxEvent event = new OutboxEvent();
+        event.setId(id);
+        event.setOperation(operation);
+        event.setUserId(id);
+        event.setEmail("user" + id + "@example.com");
+        event.setName("User " + id);
+        return event;
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.userservice.service;
+
+import com.example.events.UserEventDto;
+import com.example.userservice.dto.UserCreateDto;
+import com.example.userservice.dto.UserUpdateDto;
+import com.example.userservice.exception.EmailAlreadyExistsException;
+import com.example.userservice.exception.ResourceNotFoundException;
+import com.example.userservice.mapper.UserMapper;
+import com.example.userservice.model.OutboxEvent;
+import com.example.userservice.model.User;
+import com.example.userservice.repository.ReactiveOutboxEventRepository;
+import com.example.userservice.repository.ReactiveUserRepository;
+import io.r2dbc.spi.R2dbcDataIntegrityViolationException;
+import org.apache.kafka.common.errors.TimeoutException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.kafka.core.reactive.ReactiveKafkaProducerTemplate;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Mono;
+import reactor.kafka.sender.SenderResult;
+import reactor.test.StepVerifier;
+
+import java.time.LocalDateTime;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveUserServiceTest {
+
+    @Mock
+    private ReactiveUserRepository userRepository;
+
+    @Mock
+    private ReactiveOutboxEventRepository outboxEventRepository;
+
+    @Spy
+    private UserMapper userMapper = new UserMapper();
+
+    @Mock
+    private TransactionalOperator transactionalOperator;
+
+    @Mock
+    private ReactiveKafkaProducerTemplate<String, UserEventDto> kafkaTemplate;
+
+    @InjectMocks
+    private ReactiveUserService userService;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        user = new User();
+        user.setId(1L);
+        user.setName("John Doe");
+        user.setEmail("john@example.com");
+        user.setCreatedAt(LocalDateTime.now());
+        user.setVersion(0L);
+    }
+
+    @Test
+    void create_publishesEventAndMarksItSent() {
+        stubTransaction();
+        when(userRepository.insert(any(User.class))).thenReturn(Mono.just(user));
+        when(kafkaTemplate.send(eq("user-events"), eq("1"), argThat(event -> "CREATE".equals(event.getOperation()))))
+                .thenReturn(Mono.just(mock(SenderResult.class)));
+        when(outboxEventRepository.markSent(10L)).thenReturn(Mono.just(1L));
+
+        UserCreateDto createDto = new UserCreateDto();
+        createDto.setName("John Doe");
+        createDto.setEmail("john@example.com");
+        StepVerifier.create(userService.create(createDto))
+                .expectNextMatches(dto -> dto.getId() == 1L && "john@example.com".equals(dto.getEmail()))
+                .verifyComplete();
+
+        verify(outboxEventRepository).markSent(10L);
+    }
+
+    @Test
+    void create_duplicateEmail_failsWithConflict() {
+        stubTransaction();
+        when(userRepository.insert(any(User.class))).thenReturn(Mono.error(new DataIntegrityViolationException(
+                "duplicate key", new R2dbcDataIntegrityViolationException(
+                        "duplicate key value violates unique constraint \"users_email_key\""))));
+
+        UserCreateDto createDto = new UserCreateDto();
+        createDto.setName("John Doe");
+        createDto.setEmail("john@example.com");
+        StepVerifier.create(userService.create(createDto))
+                .expectError(EmailAlreadyExistsException.class)
+                .verify();
+
+        verify(outboxEventRepository, never()).insert(any());
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @Test
+    void update_duplicateEmailFromDriver_failsWithConflict() {
+        stubTransaction();
+        UserUpdateDto updateDto = new UserUpdateDto();
+        updateDto.setEmail("taken@example.com");
+        when(userRepository.update(1L, updateDto)).thenReturn(Mono.error(new R2dbcDataIntegrityViolationException(
+                "duplicate key value violates unique constraint \"users_email_key\"")));
+
+        StepVerifier.create(userService.update(1L, updateDto))
+                .expectError(EmailAlreadyExistsException.class)
+                .verify();
+    }
+
+    @Test
+    void update_sendFailure_leavesEventToRelay() {
+        stubTransaction();
+        UserUpdateDto updateDto = new UserUpdateDto();
+        updateDto.setName("Jane Doe");
+        when(userRepository.update(1L, updateDto)).thenReturn(Mono.just(user));
+        when(kafkaTemplate.send(eq("user-events"), eq("1"), any(UserEventDto.class)))
+                .thenReturn(Mono.error(new TimeoutException("broker unavailable")));
+
+        StepVerifier.create(userService.update(1L, updateDto))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        verify(outboxEventRepository, never()).markSent(any());
+    }
+
+    @Test
+    void delete_earlierEventUnsent_leavesEventToRelay() {
+        stubTransaction();
+        when(userRepository.deleteReturning(1L)).thenReturn(Mono.just(user));
+        when(outboxEventRepository.hasUnsentBefore(1L, 10L)).thenReturn(Mono.just(true));
+
+        StepVerifier.create(userService.delete(1L))
+                .verifyComplete();
+
+        verifyNoInteractions(kafkaTemplate);
+        verify(outboxEventRepository, never()).markSent(any());
+    }
+
+    @Test
+    void delete_missingUser_failsWithNotFound() {
+        stubTransaction();
+        when(userRepository.deleteReturning(1L)).thenReturn(Mono.empty());
+
+        StepVerifier.create(userService.delete(1L))
+                .expectError(ResourceNotFoundException.class)
+                .verify();
+
+        verify(outboxEventRepository, never()).insert(any());
+        verifyNoInteractions(kafkaTemplate);
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubTransaction() {
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        lenient().when(outboxEventRepository.insert(any(OutboxEvent.class))).thenAnswer(invocation -> {
+            OutboxEvent event = invocation.getArgument(0);
+            event.setId(10L);
+            return Mono.just(event);
+        });
+        lenient().when(outboxEventRepository.hasUnsentBefore(1L, 10L)).thenReturn(Mono.just(false));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.userservice.service;
+
+import com.example.userservice.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserEmailFilterTest {
+
+    private static final int USERS = 20_000;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserEmailFilter filter;
+
+    @BeforeEach
+    void setUp() {
+        filter = new UserEmailFilter(userRepository, new TransactionTemplate(transactionManager), USERS, 0.01);
+    }
+
+    @Test
+    void mightContain_beforeFirstRebuild_answersMaybe() {
+        assertFalse(filter.isReady());
+        assertTrue(filter.mightContain("anyone@example.com"));
+    }
+
+    @Test
+    void rebuild_knowsEveryExistingEmailAndFewOthers() {
+        when(userRepository.streamAllEmails())
+                .thenReturn(IntStream.range(0, USERS).mapToObj(i -> "user" + i + "@example.com"));
+
+        filter.rebuild();
+
+        assertTrue(filter.isReady());
+        for (int i = 0; i < USERS; i++) {
+            assertTrue(filter.mightContain("user" + i + "@example.com"));
+        }
+        long falsePositives = IntStream.range(0, USERS)
+                .filter(i -> filter.mightContain("other" + i + "@example.com")).count();
+        assertTrue(falsePositives < USERS * 0.02, "false positives: " + falsePositives);
+        // About 9.6 bits per email at 1%
+        assertTrue(filter.bytes() < USERS * 10 / 8 + 64);
+    }
+
+    @Test
+    void isTaken_missSkipsQueryAndHitIsConfirmed() {
+        when(userRepository.streamAllEmails()).thenReturn(IntStream.range(0, 10).mapToObj(i -> i + "@example.com"));
+        filter.rebuild();
+        filter.add("new@example.com");
+        when(userRepository.existsByEmail("new@example.com")).thenReturn(true);
+
+        assertFalse(filter.isTaken("free@example.com", null));
+        assertTrue(filter.isTaken("new@example.com", null));
+
+        verify(userRepository, never()).existsByEmail("free@example.com");
+        verify(userRepository, never()).existsByEmailAndIdNot(anyString(), any());
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.userservice.service;
+
+import com.example.events.UserEventDto;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.kafka.clients.producer.BufferExhaustedException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserEventPublisherTest {
+
+    @Mock
+    private KafkaTemplate<String, UserEventDto> kafkaTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private UserEventPublisher publisher;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        publisher = new UserEventPublisher(kafkaTemplate, meterRegistry);
+    }
+
+    @Test
+    void publish_keysByUserIdAndRecordsAck() {
+        UserEventDto event = event(42L);
+        CompletableFuture<SendResult<String, UserEventDto>> sent = new CompletableFuture<>();
+        when(kafkaTemplate.send(UserEventPublisher.USER_TOPIC, "42", event)).thenReturn(sent);
+
+        CompletableFuture<SendResult<String, UserEventDto>> result = publisher.publish(event);
+        assertEquals(1, publisher.inFlight());
+
+        sent.complete(mock(SendResult.class));
+
+        assertTrue(result.isDone());
+        assertEquals(0, publisher.inFlight());
+        assertEquals(1, meterRegistry.get("user.events.publish").tag("result", "acked").timer().count());
+    }
+
+    @Test
+    void publish_bufferExhausted_returnsFailedFuture() {
+        when(kafkaTemplate.send(anyString(), anyString(), any(UserEventDto.class)))
+                .thenThrow(new BufferExhaustedException("Failed to allocate 100 bytes within 5000 ms"));
+
+        CompletableFuture<SendResult<String, UserEventDto>> result = publisher.publish(event(1L));
+
+        assertTrue(result.isCompletedExceptionally());
+        assertEquals(0, publisher.inFlight());
+        assertEquals(1, meterRegistry.get("user.events.publish").tag("result", "failed").timer().count());
+        assertEquals(1, meterRegistry.get("user.events.buffer.full").counter().count());
+    }
+
+    private UserEventDto event(Long userId) {
+        UserEventDto event = new UserEventDto();
+        event.setOperation("CREATE");
+        event.setUserId(userId);
+        event.setEmail("user" + userId + "@example.com");
+        return event;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.userservice.service;
+
+import com.example.userservice.dto.BulkImportResultDto;
+import com.example.userservice.mapper.UserMapper;
+import com.example.userservice.model.OutboxEvent;
+import com.example.userservice.model.User;
+import com.example.userservice.repository.OutboxEventRepository;
+import com.example.userservice.repository.UserRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class UserImportServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private UserImportService userImportService;
+
+    @BeforeEach
+    void setUp() {
+        // Never filled, so every email counts as a candidate and is looked up
+        UserEmailFilter emailFilter = new UserEmailFilter(userRepository, new TransactionTemplate(transactionManager),
+                1000, 0.01);
+        userImportService = new UserImportService(userRepository, outboxEventRepository, new UserMapper(), emailFilter,
+                Validation.buildDefaultValidatorFactory().getValidator(), new ObjectMapper(),
+                new TransactionTemplate(transactionManager), 2, 10);
+        lenient().doAnswer(invocation -> {
+            List<User> users = invocation.getArgument(0);
+            users.forEach(user -> user.setId((long) user.getEmail().hashCode()));
+            return null;
+        }).when(userRepository).insertAll(any());
+    }
+
+    @Test
+    void importUsers_ndjson_insertsInBatchesWithEvents() throws Exception {
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of());
+        String body = """
+                {"name":"A","email":"a@example.com","age":20}
+                {"name":"B","email":"b@example.com"}
+                {"name":"C","email":"c@example.com"}
+                """;
+
+        BulkImportResultDto result = userImportService.importUsers(reader(body), UserImportService.Format.NDJSON);
+
+        assertEquals(3, result.getProcessed());
+        assertEquals(3, result.getImported());
+        assertEquals(0, result.getFailed());
+        verify(userRepository, times(2)).insertAll(any());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<OutboxEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(outboxEventRepository, times(2)).insertAll(events.capture());
+        assertEquals(2, events.getAllValues().get(0).size());
+        assertEquals("CREATE", events.getAllValues().get(1).get(0).getOperation());
+    }
+
+    @Test
+    void importUsers_csv_reportsInvalidAndDuplicateRows() throws Exception {
+        when(userRepository.findExistingEmails(anyCollection())).thenReturn(List.of("taken@example.com"));
+        String body = """
+                email,name,age
+                ok@example.com,"Doe, John",30
+                not-an-email,Jane,31
+                taken@example.com,Taken,
+                ok2@example.com,Bob,abc
+                """;
+
+        BulkImportResultDto result = userImportService.importUsers(reader(body), UserImportService.Format.CSV);
+
+        assertEquals(4, result.getProcessed());
+        assertEquals(1, result.getImported());
+        assertEquals(3, result.getFailed());
+        assertEquals(List.of(3L, 4L, 5L), result.getErrors().stream().map(BulkImportResultDto.RowError::getLine).toList());
+        assertEquals("email: already exists", result.getErrors().get(1).getMessage());
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<User>> users = ArgumentCaptor.forClass(List.class);
+        verify(userRepository).insertAll(users.capture());
+        assertEquals("Doe, John", users.getValue().get(0).getName());
+    }
+
+    @Test
+    void importUsers_malformedJson_reportsRowError() throws Exception {
+        BulkImportResultDto result = userImportService.importUsers(reader("{\"name\":\n"), UserImportService.Format.NDJSON);
+
+        assertEquals(1, result.getFailed());
+        assertEquals(1, result.getErrors().get(0).getLine());
+        verify(userRepository, never()).insertAll(any());
+    }
+
+    private BufferedReader reader(String body) {
+        return new BufferedReader(new StringReader(body));
+    }
+}
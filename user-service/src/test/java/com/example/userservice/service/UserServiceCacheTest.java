@@ -0,0 +1,132 @@
+package com.example.userservice.service;
+
+import com.example.userservice.config.CacheConfig;
+import com.example.userservice.dto.UserUpdateDto;
+import com.example.userservice.mapper.UserMapper;
+import com.example.userservice.model.User;
+import com.example.userservice.repository.OutboxEventRepository;
+import com.example.userservice.repository.UserRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@SpringJUnitConfig
+class UserServiceCacheTest {
+
+    @Configuration
+    @EnableCaching
+    @Import({UserService.class, UserMapper.class, CacheConfig.class})
+    static class Config {
+
+        @Bean
+        CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager(UserService.USER_CACHE);
+        }
+    }
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @MockBean
+    private UserRepository userRepository;
+
+    @MockBean
+    private OutboxEventRepository outboxEventRepository;
+
+    @MockBean
+    private EntityManager entityManager;
+
+    @MockBean
+    private UserEmailFilter emailFilter;
+
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        cacheManager.getCache(UserService.USER_CACHE).clear();
+        user = new User();
+        user.setId(1L);
+        user.setName("John Doe");
+        user.setEmail("john@example.com");
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+    }
+
+    @Test
+    void findById_secondCallServedFromCache() {
+        userService.findById(1L);
+        userService.findById(1L);
+
+        verify(userRepository, times(1)).findById(1L);
+    }
+
+    @Test
+    void update_evictsCachedUser() {
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(user);
+        userService.findById(1L);
+
+        userService.update(1L, new UserUpdateDto());
+        userService.findById(1L);
+
+        verify(userRepository, times(3)).findById(1L);
+    }
+
+    @Test
+    void delete_evictsCachedUser() {
+        when(userRepository.deleteReturning(1L)).thenReturn(Optional.of(user));
+        userService.findById(1L);
+
+        userService.delete(1L);
+        userService.findById(1L);
+
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void deleteAll_evictsDeletedUsers() {
+        when(userRepository.deleteAllReturning(any())).thenReturn(List.of(user));
+        userService.findById(1L);
+
+        userService.deleteAll(List.of(1L, 2L));
+        userService.findById(1L);
+
+        verify(userRepository, times(2)).findById(1L);
+    }
+
+    @Test
+    void deleteAll_evictsOnlyAfterCommit() {
+        when(userRepository.deleteAllReturning(any())).thenReturn(List.of(user));
+        userService.findById(1L);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userService.deleteAll(List.of(1L));
+
+            assertNotNull(cacheManager.getCache(UserService.USER_CACHE).get(1L));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertNull(cacheManager.getCache(UserService.USER_CACHE).get(1L));
+    }
+}
@@ -3,24 +3,36 @@ package com.example.userservice.service;
 import com.example.userservice.dto.UserCreateDto;
 import com.example.userservice.dto.UserDto;
 import com.example.userservice.dto.UserUpdateDto;
+import com.example.userservice.mapper.UserMapper;
 import com.example.userservice.model.User;
+import com.example.userservice.exception.EmailAlreadyExistsException;
+import com.example.userservice.exception.PreconditionFailedException;
 import com.example.userservice.exception.ResourceNotFoundException;
+import com.example.userservice.repository.OutboxEventRepository;
 import com.example.userservice.repository.UserRepository;
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.modelmapper.ModelMapper;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -30,8 +42,20 @@ class UserServiceTest {
     @Mock
     private UserRepository userRepository;
 
+    @Spy
+    private UserMapper userMapper = new UserMapper();
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private CacheManager cacheManager;
+
     @Mock
-    private ModelMapper modelMapper;
+    private UserEmailFilter emailFilter;
 
     @InjectMocks
     private UserService userService;
@@ -57,29 +81,38 @@ class UserServiceTest {
     }
 
     @Test
-    void findAll_returnsUserList() {
-        when(userRepository.findAll()).thenReturn(List.of(user));
-        when(modelMapper.map(user, UserDto.class)).thenReturn(userDto);
+    void findPage_returnsUsersAfterCursor() {
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(0L, Limit.of(20))).thenReturn(List.of(user));
 
-        List<UserDto> result = userService.findAll();
+        List<UserDto> result = userService.findPage(null, 20);
 
         assertEquals(1, result.size());
         assertEquals(userDto, result.get(0));
     }
 
     @Test
-    void findAll_emptyList() {
-        when(userRepository.findAll()).thenReturn(Collections.emptyList());
+    void findPage_emptyList() {
+        when(userRepository.findByIdGreaterThanOrderByIdAsc(5L, Limit.of(20))).thenReturn(Collections.emptyList());
 
-        List<UserDto> result = userService.findAll();
+        List<UserDto> result = userService.findPage(5L, 20);
 
         assertTrue(result.isEmpty());
     }
 
+    @Test
+    void streamAll_pushesEveryUserAndDetachesIt() {
+        when(userRepository.streamAllOrderById()).thenReturn(Stream.of(user));
+        List<UserDto> received = new ArrayList<>();
+
+        userService.streamAll(received::add);
+
+        assertEquals(List.of(userDto), received);
+        verify(entityManager).detach(user);
+    }
+
     @Test
     void findById_existingId_returnsUserDto() {
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(modelMapper.map(user, UserDto.class)).thenReturn(userDto);
 
         UserDto result = userService.findById(1L);
 
@@ -100,15 +133,38 @@ class UserServiceTest {
         createDto.setEmail("john@example.com");
         createDto.setAge(30);
 
-        when(modelMapper.map(createDto, User.class)).thenReturn(user);
-        when(userRepository.save(user)).thenReturn(user);
-        when(modelMapper.map(user, UserDto.class)).thenReturn(userDto);
+        when(userRepository.save(any(User.class))).thenReturn(user);
 
         UserDto result = userService.create(createDto);
 
         assertEquals(userDto, result);
     }
 
+    @Test
+    void create_takenEmail_throwsConflictWithoutInsert() {
+        UserCreateDto createDto = new UserCreateDto();
+        createDto.setName("John Doe");
+        createDto.setEmail("john@example.com");
+        when(emailFilter.isTaken("john@example.com", null)).thenReturn(true);
+
+        assertThrows(EmailAlreadyExistsException.class, () -> userService.create(createDto));
+
+        verify(userRepository, never()).save(any(User.class));
+    }
+
+    @Test
+    void create_emailTakenAfterCheck_constraintViolationIsConflict() {
+        UserCreateDto createDto = new UserCreateDto();
+        createDto.setName("John Doe");
+        createDto.setEmail("john@example.com");
+        when(userRepository.save(any(User.class))).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement",
+                new RuntimeException("duplicate key value violates unique constraint \"users_email_key\"")));
+
+        assertThrows(EmailAlreadyExistsException.class, () -> userService.create(createDto));
+        verify(outboxEventRepository, never()).save(any());
+    }
+
     @Test
     void update_existingId_returnsUpdatedUserDto() {
         UserUpdateDto updateDto = new UserUpdateDto();
@@ -131,12 +187,49 @@ class UserServiceTest {
         updatedDto.setCreatedAt(user.getCreatedAt());
 
         when(userRepository.findById(1L)).thenReturn(Optional.of(user));
-        when(userRepository.save(any(User.class))).thenReturn(updatedUser);
-        when(modelMapper.map(updatedUser, UserDto.class)).thenReturn(updatedDto);
+        when(userRepository.saveAndFlush(any(User.class))).thenReturn(updatedUser);
 
         UserDto result = userService.update(1L, updateDto);
 
         assertEquals(updatedDto, result);
+        verify(outboxEventRepository).save(argThat(event -> "UPDATE".equals(event.getOperation())));
+    }
+
+    @Test
+    void patch_appliesSingleStatementUpdateAndRecordsEvent() {
+        UserUpdateDto patchDto = new UserUpdateDto();
+        patchDto.setAge(31);
+        user.setAge(31);
+        user.setVersion(4L);
+        when(userRepository.patch(1L, patchDto, List.of(3L))).thenReturn(Optional.of(user));
+
+        UserDto result = userService.patch(1L, patchDto, List.of(3L));
+
+        assertEquals(31, result.getAge());
+        assertEquals(4L, result.getVersion());
+        verify(userRepository, never()).findById(any());
+        verify(outboxEventRepository).save(argThat(event -> "UPDATE".equals(event.getOperation())));
+    }
+
+    @Test
+    void patch_staleVersion_throwsPreconditionFailed() {
+        UserUpdateDto patchDto = new UserUpdateDto();
+        patchDto.setName("Jane Doe");
+        when(userRepository.patch(1L, patchDto, List.of(3L))).thenReturn(Optional.empty());
+        when(userRepository.existsById(1L)).thenReturn(true);
+
+        assertThrows(PreconditionFailedException.class, () -> userService.patch(1L, patchDto, List.of(3L)));
+        verify(outboxEventRepository, never()).save(any());
+    }
+
+    @Test
+    void patch_nonExistingId_throwsException() {
+        UserUpdateDto patchDto = new UserUpdateDto();
+        patchDto.setName("Jane Doe");
+        when(userRepository.patch(999L, patchDto, null)).thenReturn(Optional.empty());
+        when(userRepository.existsById(999L)).thenReturn(false);
+
+        assertThrows(ResourceNotFoundException.class, () -> userService.patch(999L, patchDto, null));
     }
 
     @Test
@@ -148,17 +241,33 @@ class UserServiceTest {
     }
 
     @Test
-    void delete_existingId_deletesUser() {
-        when(userRepository.existsById(1L)).thenReturn(true);
+    void delete_existingId_deletesUserWithSingleStatement() {
+        when(userRepository.deleteReturning(1L)).thenReturn(Optional.of(user));
 
         userService.delete(1L);
 
-        verify(userRepository).deleteById(1L);
+        verify(userRepository, never()).findById(any());
+        verify(outboxEventRepository).save(argThat(event -> "DELETE".equals(event.getOperation())
+                && "john@example.com".equals(event.getEmail())));
+    }
+
+    @Test
+    void deleteAll_recordsEventPerDeletedUser() {
+        User other = new User();
+        other.setId(2L);
+        other.setEmail("jane@example.com");
+        when(userRepository.deleteAllReturning(any())).thenReturn(List.of(user, other));
+
+        List<Long> deleted = userService.deleteAll(List.of(1L, 2L, 2L, 3L));
+
+        assertEquals(List.of(1L, 2L), deleted);
+        verify(userRepository).deleteAllReturning(argThat(ids -> ids.size() == 3));
+        verify(outboxEventRepository).insertAll(argThat(events -> events.size() == 2));
     }
 
     @Test
     void delete_nonExistingId_throwsException() {
-        when(userRepository.existsById(999L)).thenReturn(false);
+        when(userRepository.deleteReturning(999L)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> userService.delete(999L));
     }